@@ -0,0 +1,208 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ClassName: Aggregator
+ * Package: hbase
+ * Description: 行数和数值列的count/sum/min/max，按Region并行扫描，结果在扫描线程中直接累加，不保存行
+ * rowCount每行只返回第一个Cell的行键（FirstKeyOnlyFilter + KeyOnlyFilter），stats只读取被统计的列
+ * 真正在服务端聚合需要部署AggregateImplementation协处理器，这里不依赖协处理器
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 22:30
+ * @Version 1.0
+ */
+public class Aggregator {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    private static final int CACHING = 1000;
+
+    // 数值列的统计结果
+    public static class Stats {
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+        // 没有该列或值不能解析为数字的行数
+        private final long skipped;
+
+        Stats(long count, long sum, long min, long max, long skipped) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.skipped = skipped;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        // count为0时没有意义
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getAverage() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", sum=" + sum + ", min=" + (count == 0 ? "-" : min)
+                    + ", max=" + (count == 0 ? "-" : max) + ", average=" + getAverage() + ", skipped=" + skipped;
+        }
+    }
+
+    private final Connection connection;
+    private final String namespace;
+    private final String tableName;
+    private String startRow;
+    private String stopRow;
+    private Condition where;
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    private Aggregator(Connection connection, String namespace, String tableName) {
+        this.connection = connection;
+        this.namespace = namespace;
+        this.tableName = tableName;
+    }
+
+    public static Aggregator create(Connection connection, String namespace, String tableName) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        return new Aggregator(connection, namespace, tableName);
+    }
+
+    // 行键范围[startRow, stopRow)，为null表示不限
+    public Aggregator range(String startRow, String stopRow) {
+        this.startRow = startRow;
+        this.stopRow = stopRow;
+        return this;
+    }
+
+    // 只统计满足条件的行
+    public Aggregator where(Condition where) {
+        this.where = where;
+        return this;
+    }
+
+    // 同时扫描的Region数
+    public Aggregator parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须大于0");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // 行数，只传输行键
+    public long rowCount() throws IOException {
+        Scan scan = query().toKeyOnlyScan();
+        LongAdder rows = new LongAdder();
+        try (ParallelScanner scanner = new ParallelScanner(connection, parallelism)) {
+            scanner.scanUnordered(namespace, tableName, scan, result -> rows.increment());
+        }
+        return rows.sum();
+    }
+
+    /**
+     * 数值列的统计，只读取这一列（以及条件用到的列）
+     * @param type 值的编码：STRING为十进制字符串（putData写入），INT/LONG为Bytes.toBytes写入的定长整数，
+     *             incrementData和CounterBatcher写入的计数器是LONG
+     */
+    public Stats stats(String cf, String cl, Condition.ValueType type) throws IOException {
+        if (cf == null || cf.trim().isEmpty()) {
+            throw new IllegalArgumentException("列族不能为空");
+        }
+        if (cl == null || cl.trim().isEmpty()) {
+            throw new IllegalArgumentException("列不能为空");
+        }
+        byte[] family = Bytes.toBytes(cf);
+        byte[] qualifier = Bytes.toBytes(cl);
+        Scan scan = query().select(cf, cl).toScan();
+        LongAdder count = new LongAdder();
+        LongAdder sum = new LongAdder();
+        LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        LongAdder skipped = new LongAdder();
+        try (ParallelScanner scanner = new ParallelScanner(connection, parallelism)) {
+            scanner.scanUnordered(namespace, tableName, scan, result -> {
+                Cell cell = result.getColumnLatestCell(family, qualifier);
+                Long value = cell == null ? null : parse(cell, type);
+                if (value == null) {
+                    skipped.increment();
+                    return;
+                }
+                count.increment();
+                sum.add(value);
+                min.accumulate(value);
+                max.accumulate(value);
+            });
+        }
+        return new Stats(count.sum(), sum.sum(), min.get(), max.get(), skipped.sum());
+    }
+
+    // 值不能按type解析时返回null
+    private static Long parse(Cell cell, Condition.ValueType type) {
+        int length = cell.getValueLength();
+        switch (type) {
+            case INT:
+                return length == Bytes.SIZEOF_INT
+                        ? (long) Bytes.toInt(cell.getValueArray(), cell.getValueOffset()) : null;
+            case LONG:
+                return length == Bytes.SIZEOF_LONG
+                        ? Bytes.toLong(cell.getValueArray(), cell.getValueOffset()) : null;
+            default:
+                try {
+                    return Long.parseLong(Bytes.toString(CellUtil.cloneValue(cell)).trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+        }
+    }
+
+    private FilterQuery query() {
+        List<Condition> conditions = new ArrayList<>();
+        if (startRow != null || stopRow != null) {
+            conditions.add(Condition.rowRange(startRow, stopRow));
+        }
+        if (where != null) {
+            conditions.add(where);
+        }
+        Condition condition = conditions.isEmpty() ? null
+                : conditions.size() == 1 ? conditions.get(0)
+                : Condition.and(conditions.toArray(new Condition[0]));
+        FilterQuery query = FilterQuery.where(condition);
+        query.options().caching(CACHING).cacheBlocks(false);
+        return query;
+    }
+}
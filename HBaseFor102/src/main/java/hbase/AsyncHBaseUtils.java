@@ -0,0 +1,271 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.AdvancedScanResultConsumer;
+import org.apache.hadoop.hbase.client.AsyncAdmin;
+import org.apache.hadoop.hbase.client.AsyncConnection;
+import org.apache.hadoop.hbase.client.AsyncTable;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptorBuilder;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.TableDescriptorBuilder;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * ClassName: AsyncHBaseUtils
+ * Package: hbase
+ * Description: 基于AsyncConnection/AsyncTable的非阻塞版HBaseUtils，所有操作返回CompletableFuture
+ * 通过信号量限制在途请求数，达到上限时调用线程会阻塞等待，以此实现背压
+ * 注意：回调默认在HBase客户端的RPC线程中执行，回调中不要做阻塞操作
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 11:20
+ * @Version 1.0
+ */
+public class AsyncHBaseUtils {
+
+    // 默认最大在途请求数
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+
+    private final AsyncConnection connection;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    public AsyncHBaseUtils(AsyncConnection connection) {
+        this(connection, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public AsyncHBaseUtils(AsyncConnection connection, int maxInFlight) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("最大在途请求数必须大于0");
+        }
+        this.connection = connection;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    // 当前在途请求数
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    // 创建表，表已存在时返回false
+    public CompletableFuture<Boolean> createTable(String namespace, String table, String... cfs) {
+        if (table == null || table.trim().isEmpty()) {
+            return failed(new IllegalArgumentException("表名不能为空"));
+        }
+        if (cfs == null || cfs.length == 0) {
+            return failed(new IllegalArgumentException("至少指定一个列族"));
+        }
+        final TableName tn = TableName.valueOf(namespace, table);
+        final TableDescriptorBuilder tableDescriptorBuilder = TableDescriptorBuilder.newBuilder(tn);
+        for (String cf : cfs) {
+            tableDescriptorBuilder.setColumnFamily(ColumnFamilyDescriptorBuilder.of(cf));
+        }
+        final AsyncAdmin admin = connection.getAdmin();
+        return submit(() -> admin.tableExists(tn).thenCompose(exists -> {
+            if (exists) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return admin.createTable(tableDescriptorBuilder.build()).thenApply(v -> true);
+        }));
+    }
+
+    // DML put
+    public CompletableFuture<Void> putData(String namespace, String tableName, String rowKey, String cf, String cl, String v) {
+        if (cf == null || cf.trim().isEmpty() || cl == null || cl.trim().isEmpty()) {
+            return failed(new IllegalArgumentException("列族和列不能为空"));
+        }
+        if (v == null || v.trim().isEmpty()) {
+            return failed(new IllegalArgumentException("值不能为空"));
+        }
+        Put put = new Put(Bytes.toBytes(rowKey));
+        put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(cl), Bytes.toBytes(v));
+        return put(namespace, tableName, put);
+    }
+
+    // 写入成功后按新值补写二级索引，索引写完future才完成；写入完成后（包括失败）使本进程行缓存中的对应行失效
+    public CompletableFuture<Void> put(String namespace, String tableName, Put put) {
+        if (tableName == null || tableName.trim().isEmpty()) {
+            return failed(new IllegalArgumentException("表名不能为空"));
+        }
+        TableName tn = TableName.valueOf(namespace, tableName);
+        return submit(() -> getTable(namespace, tableName).put(put)
+                .thenCompose(v -> SecondaryIndex.indexCurrentValues(connection, tn, rows(Collections.singletonList(put)))))
+                .whenComplete((v, t) -> RowCache.invalidateAll(tn, put.getRow()));
+    }
+
+    public CompletableFuture<Void> putAll(String namespace, String tableName, List<Put> puts) {
+        if (tableName == null || tableName.trim().isEmpty()) {
+            return failed(new IllegalArgumentException("表名不能为空"));
+        }
+        TableName tn = TableName.valueOf(namespace, tableName);
+        return submit(() -> getTable(namespace, tableName).putAll(puts)
+                .thenCompose(v -> SecondaryIndex.indexCurrentValues(connection, tn, rows(puts))))
+                .whenComplete((v, t) -> invalidateAll(tn, puts));
+    }
+
+    // DML delete，与HBaseUtils.deleteData一致，删除指定列族
+    public CompletableFuture<Void> deleteData(String namespace, String tableName, String rowKey, String cf, String cl) {
+        Delete delete = new Delete(Bytes.toBytes(rowKey));
+        delete.addFamily(Bytes.toBytes(cf));
+        return delete(namespace, tableName, delete);
+    }
+
+    // 删除后旧值的索引条目在查询时被过滤，由check(true)清理；旧版本重新可见时按当前值补写它的条目
+    public CompletableFuture<Void> delete(String namespace, String tableName, Delete delete) {
+        if (tableName == null || tableName.trim().isEmpty()) {
+            return failed(new IllegalArgumentException("表名不能为空"));
+        }
+        TableName tn = TableName.valueOf(namespace, tableName);
+        return submit(() -> getTable(namespace, tableName).delete(delete)
+                .thenCompose(v -> SecondaryIndex.indexCurrentValues(connection, tn, rows(Collections.singletonList(delete)))))
+                .whenComplete((v, t) -> RowCache.invalidateAll(tn, delete.getRow()));
+    }
+
+    private static List<byte[]> rows(List<? extends Mutation> mutations) {
+        List<byte[]> rows = new ArrayList<>(mutations.size());
+        for (Mutation mutation : mutations) {
+            rows.add(mutation.getRow());
+        }
+        return rows;
+    }
+
+    private static void invalidateAll(TableName tn, List<? extends Mutation> mutations) {
+        for (Mutation mutation : mutations) {
+            RowCache.invalidateAll(tn, mutation.getRow());
+        }
+    }
+
+    // DML get
+    public CompletableFuture<Result> getData(String namespace, String tableName, String rowKey) {
+        return get(namespace, tableName, new Get(Bytes.toBytes(rowKey)));
+    }
+
+    public CompletableFuture<Result> get(String namespace, String tableName, Get get) {
+        return submit(() -> getTable(namespace, tableName).get(get));
+    }
+
+    // DML scan，结果一次性返回，适合小范围扫描；大范围扫描用流式的scanData(..., RowSink)
+    public CompletableFuture<List<Result>> scanData(String namespace, String tableName, String startRow, String stopRow) {
+        return scan(namespace, tableName, rangeScan(startRow, stopRow));
+    }
+
+    public CompletableFuture<List<Result>> scan(String namespace, String tableName, Scan scan) {
+        return submit(() -> getTable(namespace, tableName).scanAll(scan));
+    }
+
+    // DML scan，流式返回：每批结果到达时逐行交给sink，客户端只缓存一批，返回扫描的行数
+    public CompletableFuture<Long> scanData(String namespace, String tableName, String startRow, String stopRow, RowSink sink) {
+        return scan(namespace, tableName, rangeScan(startRow, stopRow), sink);
+    }
+
+    /**
+     * 流式扫描，整个扫描只占用一个在途许可
+     * sink在RPC线程中回调，不要阻塞；sink抛出异常时终止扫描，返回的future以该异常完成
+     *
+     * @return 扫描结束时完成，值为交给sink的行数
+     */
+    public CompletableFuture<Long> scan(String namespace, String tableName, Scan scan, RowSink sink) {
+        if (sink == null) {
+            return failed(new IllegalArgumentException("sink不能为空"));
+        }
+        return submit(() -> {
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            getTable(namespace, tableName).scan(scan, new AdvancedScanResultConsumer() {
+                private long rows;
+
+                @Override
+                public void onNext(Result[] results, ScanController controller) {
+                    try {
+                        for (Result result : results) {
+                            RowSink.accept(result, sink);
+                            rows++;
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        future.completeExceptionally(e);
+                        controller.terminate();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    future.completeExceptionally(error);
+                }
+
+                @Override
+                public void onComplete() {
+                    future.complete(rows);
+                }
+            });
+            return future;
+        });
+    }
+
+    private static Scan rangeScan(String startRow, String stopRow) {
+        Scan scan = new Scan();
+        scan.withStartRow(Bytes.toBytes(startRow)).withStopRow(Bytes.toBytes(stopRow));
+        return scan;
+    }
+
+    private AsyncTable<AdvancedScanResultConsumer> getTable(String namespace, String tableName) {
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        return connection.getTable(TableName.valueOf(namespace, tableName));
+    }
+
+    // 获取许可后发出请求，请求完成时归还许可
+    private <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(e);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            inFlight.release();
+            return failed(e);
+        }
+        return future.whenComplete((t, throwable) -> inFlight.release());
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable t) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(t);
+        return future;
+    }
+
+    public static void main(String[] args) throws Exception {
+        AsyncConnection asyncConnection = HBaseUtils.getAsyncConnection();
+        AsyncHBaseUtils asyncHBaseUtils = new AsyncHBaseUtils(asyncConnection, 100);
+        // DML get
+        // Result result = asyncHBaseUtils.getData(null, "stu", "1004").get();
+        // DML scan
+        // long rows = asyncHBaseUtils.scanData(null, "stu", "1001", "1005", RowSinks.printing(System.out)).get();
+        // 只用到了异步连接，不需要再打开同步连接
+        HBaseUtils.closeAsyncConnection(asyncConnection);
+    }
+}
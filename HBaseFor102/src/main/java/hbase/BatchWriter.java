@@ -0,0 +1,210 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: BatchWriter
+ * Package: hbase
+ * Description: 基于BufferedMutator的批量写，替代HBaseUtils.putData每次getTable/put/close的方式
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 10:50
+ * @Version 1.0
+ */
+public class BatchWriter implements Closeable {
+
+    // 默认写缓冲区大小 4MB
+    public static final long DEFAULT_WRITE_BUFFER_SIZE = 4L * 1024 * 1024;
+    // 默认定时刷写间隔 1s
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000L;
+
+    // 写失败的回调，按行报告
+    public interface FailureListener {
+        void onFailure(byte[] row, Row mutation, Throwable cause, String hostnamePort);
+    }
+
+    // 默认的失败回调：打印失败的行
+    public static final FailureListener PRINT_LISTENER = new FailureListener() {
+        @Override
+        public void onFailure(byte[] row, Row mutation, Throwable cause, String hostnamePort) {
+            System.out.println("写入失败：" + Bytes.toString(row) + "@" + hostnamePort + "：" + cause);
+        }
+    };
+
+    private final Connection connection;
+    private final TableName tableName;
+    private final BufferedMutator mutator;
+    // 创建时数据表上注册的二级索引，以及各自索引表的BufferedMutator
+    private final List<SecondaryIndex> indexes;
+    private final List<BufferedMutator> indexMutators;
+    private final AtomicLong mutationCount = new AtomicLong();
+    private final AtomicLong failureCount;
+
+    private BatchWriter(Connection connection, TableName tableName, BufferedMutator mutator,
+                        List<SecondaryIndex> indexes, List<BufferedMutator> indexMutators, AtomicLong failureCount) {
+        this.connection = connection;
+        this.tableName = tableName;
+        this.mutator = mutator;
+        this.indexes = indexes;
+        this.indexMutators = indexMutators;
+        this.failureCount = failureCount;
+    }
+
+    public static BatchWriter create(Connection connection, String namespace, String tableName) throws IOException {
+        return create(connection, namespace, tableName, DEFAULT_WRITE_BUFFER_SIZE, DEFAULT_FLUSH_INTERVAL_MS, PRINT_LISTENER);
+    }
+
+    /**
+     * @param writeBufferSize 写缓冲区大小（字节），缓冲区满时自动刷写
+     * @param flushIntervalMs 定时刷写间隔（毫秒），小于等于0表示不定时刷写
+     * @param listener        写失败的回调，为null时使用PRINT_LISTENER
+     */
+    public static BatchWriter create(Connection connection, String namespace, String tableName,
+                                     long writeBufferSize, long flushIntervalMs,
+                                     final FailureListener listener) throws IOException {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        final TableName tn = TableName.valueOf(namespace, tableName);
+        final FailureListener failureListener = listener == null ? PRINT_LISTENER : listener;
+        final AtomicLong failures = new AtomicLong();
+        BufferedMutatorParams params = new BufferedMutatorParams(tn)
+                .writeBufferSize(writeBufferSize)
+                // 异步刷写失败时，逐行回调
+                .listener(new BufferedMutator.ExceptionListener() {
+                    @Override
+                    public void onException(RetriesExhaustedWithDetailsException e, BufferedMutator mutator) {
+                        for (int i = 0; i < e.getNumExceptions(); i++) {
+                            Row row = e.getRow(i);
+                            failures.incrementAndGet();
+                            failureListener.onFailure(row.getRow(), row, e.getCause(i), e.getHostnamePort(i));
+                        }
+                    }
+                });
+        if (flushIntervalMs > 0) {
+            params.setWriteBufferPeriodicFlushTimeoutMs(flushIntervalMs);
+        }
+        List<SecondaryIndex> indexes = new ArrayList<>(SecondaryIndex.forTable(connection, tn));
+        List<BufferedMutator> indexMutators = new ArrayList<>(indexes.size());
+        for (SecondaryIndex index : indexes) {
+            indexMutators.add(connection.getBufferedMutator(new BufferedMutatorParams(index.getIndexTable())
+                    .writeBufferSize(writeBufferSize)
+                    .listener(params.getListener())));
+        }
+        return new BatchWriter(connection, tn, connection.getBufferedMutator(params), indexes, indexMutators, failures);
+    }
+
+    // 写入一个单元格，参数与HBaseUtils.putData一致
+    public void put(String rowKey, String cf, String cl, String v) throws IOException {
+        Put put = new Put(Bytes.toBytes(rowKey));
+        put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(cl), Bytes.toBytes(v));
+        mutate(put);
+    }
+
+    // 开启了RowCache时在mutate时使对应行失效，刷写之前读到的旧值最多保留TTL
+    // 注册了二级索引时，Put中被索引列的新值同时写入索引表；不读旧值，旧的索引条目由查询时的校验过滤
+    // 开启了WriteThrottle时按表限速
+    public void mutate(Mutation mutation) throws IOException {
+        WriteThrottle.acquireRate(connection, tableName, 1);
+        index(mutation);
+        mutator.mutate(mutation);
+        mutationCount.incrementAndGet();
+        HBaseUtils.invalidateRow(connection, tableName, mutation.getRow());
+    }
+
+    public void mutate(List<? extends Mutation> mutations) throws IOException {
+        WriteThrottle.acquireRate(connection, tableName, mutations.size());
+        for (Mutation mutation : mutations) {
+            index(mutation);
+        }
+        mutator.mutate(mutations);
+        mutationCount.addAndGet(mutations.size());
+        for (Mutation mutation : mutations) {
+            HBaseUtils.invalidateRow(connection, tableName, mutation.getRow());
+        }
+    }
+
+    private void index(Mutation mutation) throws IOException {
+        if (indexes.isEmpty() || !(mutation instanceof Put)) {
+            return;
+        }
+        for (int i = 0; i < indexes.size(); i++) {
+            byte[] value = indexes.get(i).valueOf((Put) mutation);
+            if (value != null) {
+                indexMutators.get(i).mutate(indexes.get(i).indexPut(mutation.getRow(), value));
+            }
+        }
+    }
+
+    // 显式刷写缓冲区，索引先于数据刷写
+    public void flush() throws IOException {
+        for (BufferedMutator indexMutator : indexMutators) {
+            indexMutator.flush();
+        }
+        mutator.flush();
+    }
+
+    public TableName getTableName() {
+        return tableName;
+    }
+
+    public long getWriteBufferSize() {
+        return mutator.getWriteBufferSize();
+    }
+
+    // 已提交到缓冲区的Mutation数
+    public long getMutationCount() {
+        return mutationCount.get();
+    }
+
+    // 写失败的行数
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    // 关闭前会刷写剩余数据；索引先关闭，某个索引关闭失败时其余索引和数据仍然关闭，最后抛出第一个异常
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (BufferedMutator indexMutator : indexMutators) {
+            try {
+                indexMutator.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        try {
+            mutator.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            } else {
+                error.addSuppressed(e);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
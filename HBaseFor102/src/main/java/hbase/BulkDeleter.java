@@ -0,0 +1,358 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: BulkDeleter
+ * Package: hbase
+ * Description: 按行键范围和条件批量删除：只读行键的扫描找出要删除的行，攒批后Table.batch
+ * 按Region并行执行，所有线程共用一个RateLimiter限制每秒删除的行数
+ * olderThan用于按时间清理过期数据，只删除时间戳早于指定时间的版本
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 20:50
+ * @Version 1.0
+ */
+public class BulkDeleter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    // 删除的粒度，对应Delete的addColumn、addColumns、addFamily和整行删除
+    public enum DeleteType {
+        // 指定列的最新版本，底层Delete
+        LATEST_VERSION,
+        // 指定列的所有版本，底层DeleteColumn
+        ALL_VERSIONS,
+        // 指定列族，底层DeleteFamily
+        FAMILY,
+        // 整行
+        ROW
+    }
+
+    // 一次删除的统计
+    public static class Report {
+        private final AtomicLong rowsMatched = new AtomicLong();
+        private final AtomicLong rowsDeleted = new AtomicLong();
+        private final AtomicLong rowsFailed = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private int regions;
+        private long millis;
+
+        public long getRowsMatched() {
+            return rowsMatched.get();
+        }
+
+        public long getRowsDeleted() {
+            return rowsDeleted.get();
+        }
+
+        public long getRowsFailed() {
+            return rowsFailed.get();
+        }
+
+        public long getBatches() {
+            return batches.get();
+        }
+
+        public int getRegions() {
+            return regions;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return "rowsMatched=" + rowsMatched + ", rowsDeleted=" + rowsDeleted + ", rowsFailed=" + rowsFailed
+                    + ", batches=" + batches + ", regions=" + regions + ", millis=" + millis;
+        }
+    }
+
+    private final Connection connection;
+    private final TableName tableName;
+    private String startRow;
+    private String stopRow;
+    private Condition where;
+    private DeleteType deleteType = DeleteType.ROW;
+    private byte[] family;
+    private byte[] qualifier;
+    private long olderThan = -1;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private RateLimiter rateLimiter = RateLimiter.unlimited();
+
+    private BulkDeleter(Connection connection, TableName tableName) {
+        this.connection = connection;
+        this.tableName = tableName;
+    }
+
+    public static BulkDeleter create(Connection connection, String namespace, String tableName) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        return new BulkDeleter(connection, TableName.valueOf(namespace, tableName));
+    }
+
+    // 行键范围[startRow, stopRow)，为null表示不限
+    public BulkDeleter range(String startRow, String stopRow) {
+        this.startRow = startRow;
+        this.stopRow = stopRow;
+        return this;
+    }
+
+    // 删除满足条件的行，条件中的列会被读取，只有行键条件时扫描只返回行键
+    public BulkDeleter where(Condition where) {
+        this.where = where;
+        return this;
+    }
+
+    // 删除整行
+    public BulkDeleter deleteRow() {
+        return deleteType(DeleteType.ROW, null, null);
+    }
+
+    // 删除列族
+    public BulkDeleter deleteFamily(String cf) {
+        return deleteType(DeleteType.FAMILY, cf, null);
+    }
+
+    /**
+     * @param cf 列族，ROW时忽略
+     * @param cl 列，只有LATEST_VERSION和ALL_VERSIONS需要
+     */
+    public BulkDeleter deleteType(DeleteType deleteType, String cf, String cl) {
+        if (deleteType != DeleteType.ROW && (cf == null || cf.trim().isEmpty())) {
+            throw new IllegalArgumentException("列族不能为空");
+        }
+        if ((deleteType == DeleteType.LATEST_VERSION || deleteType == DeleteType.ALL_VERSIONS)
+                && (cl == null || cl.trim().isEmpty())) {
+            throw new IllegalArgumentException("列不能为空");
+        }
+        this.deleteType = deleteType;
+        this.family = cf == null ? null : Bytes.toBytes(cf);
+        this.qualifier = cl == null ? null : Bytes.toBytes(cl);
+        return this;
+    }
+
+    // 只删除时间戳早于timestamp（毫秒）的数据，不支持LATEST_VERSION
+    public BulkDeleter olderThan(long timestamp) {
+        this.olderThan = timestamp;
+        return this;
+    }
+
+    // 每次Table.batch的行数
+    public BulkDeleter batchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("批大小必须大于0");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    // 同时处理的Region数
+    public BulkDeleter parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须大于0");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // 每秒最多删除的行数，小于等于0表示不限速
+    public BulkDeleter rateLimit(double rowsPerSecond) {
+        this.rateLimiter = RateLimiter.create(rowsPerSecond);
+        return this;
+    }
+
+    // 共用外部的限速器，如多张表一起限速
+    public BulkDeleter rateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter == null ? RateLimiter.unlimited() : rateLimiter;
+        return this;
+    }
+
+    public Report run() throws IOException {
+        if (olderThan >= 0 && deleteType == DeleteType.LATEST_VERSION) {
+            throw new IllegalArgumentException("LATEST_VERSION不能和olderThan一起使用");
+        }
+        // 不维护二级索引，删除后的过期条目在查询时被过滤
+        SecondaryIndex.warnUnindexed(tableName, "BulkDeleter", "check(true)清理过期条目");
+        long start = System.currentTimeMillis();
+        Scan template = toScan();
+        List<ParallelScanner.ScanSplit> splits = ParallelScanner.split(connection, tableName, template);
+        Report report = new Report();
+        report.regions = splits.size();
+        if (splits.isEmpty()) {
+            return report;
+        }
+
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, splits.size()), r -> {
+            Thread thread = new Thread(r, "bulk-deleter-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(splits.size());
+            for (ParallelScanner.ScanSplit split : splits) {
+                Scan scan = split.toScan(template);
+                futures.add(executor.submit(() -> {
+                    deleteSplit(scan, report);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("批量删除被中断");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        report.millis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    // 扫描一个Region内要删除的行并分批删除
+    private void deleteSplit(Scan scan, Report report) throws IOException {
+        Table table = TableCache.forConnection(connection).getTable(tableName);
+        List<Delete> batch = new ArrayList<>(batchSize);
+        try (ResultScanner resultScanner = table.getScanner(scan)) {
+            for (Result result : resultScanner) {
+                report.rowsMatched.incrementAndGet();
+                batch.add(toDelete(result.getRow()));
+                if (batch.size() >= batchSize) {
+                    flush(table, batch, report);
+                }
+            }
+        }
+        flush(table, batch, report);
+    }
+
+    private void flush(Table table, List<Delete> batch, Report report) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        rateLimiter.acquire(batch.size());
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_BULK_DELETE, tableName);
+        Object[] results = new Object[batch.size()];
+        try {
+            table.batch(batch, results);
+        } catch (RetriesExhaustedWithDetailsException e) {
+            // 部分失败，失败的行在results中是Throwable
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timer.failure(e);
+            throw new InterruptedIOException("批量删除被中断");
+        } catch (IOException e) {
+            timer.failure(e);
+            throw e;
+        }
+        long deleted = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] instanceof Result) {
+                deleted++;
+                HBaseUtils.invalidateRow(connection, tableName, batch.get(i).getRow());
+            } else {
+                report.rowsFailed.incrementAndGet();
+            }
+        }
+        report.rowsDeleted.addAndGet(deleted);
+        report.batches.incrementAndGet();
+        if (deleted == results.length) {
+            timer.success(deleted, 0, 0);
+        } else {
+            timer.partial(deleted, 0, 0);
+        }
+        batch.clear();
+    }
+
+    private Delete toDelete(byte[] row) {
+        Delete delete = olderThan >= 0 && deleteType == DeleteType.ROW
+                // 删除所有列族中时间戳小于等于olderThan - 1的版本
+                ? new Delete(row, olderThan - 1)
+                : new Delete(row);
+        switch (deleteType) {
+            case LATEST_VERSION:
+                delete.addColumn(family, qualifier);
+                break;
+            case ALL_VERSIONS:
+                if (olderThan >= 0) {
+                    delete.addColumns(family, qualifier, olderThan - 1);
+                } else {
+                    delete.addColumns(family, qualifier);
+                }
+                break;
+            case FAMILY:
+                if (olderThan >= 0) {
+                    delete.addFamily(family, olderThan - 1);
+                } else {
+                    delete.addFamily(family);
+                }
+                break;
+            default:
+                break;
+        }
+        return delete;
+    }
+
+    // 只读取判断条件需要的数据；没有列条件时每行只返回第一个Cell的行键
+    private Scan toScan() throws IOException {
+        List<Condition> conditions = new ArrayList<>();
+        if (startRow != null || stopRow != null) {
+            conditions.add(Condition.rowRange(startRow, stopRow));
+        }
+        if (where != null) {
+            conditions.add(where);
+        }
+        Condition condition = conditions.isEmpty() ? null
+                : conditions.size() == 1 ? conditions.get(0)
+                : Condition.and(conditions.toArray(new Condition[0]));
+        FilterQuery query = FilterQuery.where(condition);
+        query.options().caching(batchSize).cacheBlocks(false);
+        Scan scan = query.toKeyOnlyScan();
+
+        List<Condition.ColumnCondition> columns = new ArrayList<>();
+        if (condition != null) {
+            condition.collectColumns(columns);
+        }
+        // 只有行键条件时，只扫描要删除的列族或列，没有这些数据的行不需要删除
+        if (columns.isEmpty()) {
+            if (deleteType == DeleteType.FAMILY) {
+                scan.addFamily(family);
+            } else if (deleteType != DeleteType.ROW) {
+                scan.addColumn(family, qualifier);
+            }
+        }
+        if (olderThan >= 0) {
+            scan.setTimeRange(0, olderThan);
+        }
+        return scan;
+    }
+}
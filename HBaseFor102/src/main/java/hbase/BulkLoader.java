@@ -0,0 +1,395 @@
+package hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptor;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+import org.apache.hadoop.hbase.io.hfile.HFileContext;
+import org.apache.hadoop.hbase.io.hfile.HFileContextBuilder;
+import org.apache.hadoop.hbase.regionserver.HStoreFile;
+import org.apache.hadoop.hbase.regionserver.StoreFileWriter;
+import org.apache.hadoop.hbase.tool.BulkLoadHFiles;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: BulkLoader
+ * Package: hbase
+ * Description: 批量导入，不经过WAL和MemStore：先按Region边界把输入写成HFile，再用BulkLoadHFiles加载
+ * 输入为按行键升序排列的CSV，每行一个单元格：行键,列族,列,值，与RowSinks.csv的输出格式一致
+ * 每个列族的压缩、编码、块大小、布隆过滤器取自表描述
+ * 导入不维护二级索引，表有索引时导入之后需要SecondaryIndex.rebuild()
+ * 每次写HFile使用临时目录下新的子目录，失败的导入不会影响下一次
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 18:20
+ * @Version 1.0
+ */
+public class BulkLoader {
+
+    // 进程内的导入序号，与时间戳一起生成每次导入的子目录名
+    private static final AtomicLong RUNS = new AtomicLong();
+
+    private final Connection connection;
+    private final TableName tableName;
+    private Path stagingDir;
+    private long timestamp = System.currentTimeMillis();
+
+    // 一次导入的统计
+    public static class Report {
+        // 本次导入的子目录
+        private Path stagingDir;
+        private long rows;
+        private long cells;
+        private long bytes;
+        private int files;
+        private int regions;
+        private long writeMillis;
+        private long loadMillis;
+
+        public Path getStagingDir() {
+            return stagingDir;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getCells() {
+            return cells;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public int getFiles() {
+            return files;
+        }
+
+        public int getRegions() {
+            return regions;
+        }
+
+        public long getWriteMillis() {
+            return writeMillis;
+        }
+
+        public long getLoadMillis() {
+            return loadMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "rows=" + rows + ", cells=" + cells + ", bytes=" + bytes + ", files=" + files
+                    + ", regions=" + regions + ", writeMillis=" + writeMillis + ", loadMillis=" + loadMillis
+                    + ", stagingDir=" + stagingDir;
+        }
+    }
+
+    private BulkLoader(Connection connection, TableName tableName) {
+        this.connection = connection;
+        this.tableName = tableName;
+        Configuration conf = connection.getConfiguration();
+        // 默认写到hbase.fs.tmp.dir下，与集群在同一个文件系统时加载只需要rename
+        this.stagingDir = new Path(conf.get("hbase.fs.tmp.dir", "/tmp"),
+                "bulkload-" + tableName.getNameAsString().replace(':', '_') + "-" + timestamp);
+    }
+
+    public static BulkLoader create(Connection connection, String namespace, String tableName) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        return new BulkLoader(connection, TableName.valueOf(namespace, tableName));
+    }
+
+    // HFile的临时目录，每次导入在其下新建子目录，子目录下按列族分目录
+    public BulkLoader stagingDir(String stagingDir) {
+        this.stagingDir = new Path(stagingDir);
+        return this;
+    }
+
+    // 所有单元格的时间戳，默认为创建BulkLoader的时间
+    public BulkLoader timestamp(long timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    /**
+     * 写HFile并加载，无论成功失败都删除本次导入的子目录
+     */
+    public Report load(InputStream csv) throws IOException {
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_BULK_LOAD, tableName);
+        Report report = null;
+        try {
+            report = writeHFiles(csv);
+            loadHFiles(report);
+            timer.success(report.rows, report.cells, report.bytes);
+            return report;
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        } finally {
+            // writeHFiles失败时已自行清理
+            if (report != null) {
+                deleteQuietly(report.stagingDir);
+            }
+        }
+    }
+
+    /**
+     * 读取CSV，按Region边界和列族写HFile：每个Region的每个列族一个文件
+     * 行键必须升序，同一行内的单元格会重新排序，重复的单元格保留最后一个
+     * 文件写在临时目录下新建的子目录（Report.getStagingDir）中，写入失败时删除该子目录
+     */
+    public Report writeHFiles(InputStream csv) throws IOException {
+        long start = System.currentTimeMillis();
+        Configuration conf = connection.getConfiguration();
+        Path runDir = new Path(stagingDir, "run-" + System.currentTimeMillis() + "-" + RUNS.incrementAndGet());
+        FileSystem fs = runDir.getFileSystem(conf);
+        if (fs.exists(runDir)) {
+            throw new IOException("临时目录已存在：" + runDir);
+        }
+        Report report = new Report();
+        report.stagingDir = runDir;
+        try {
+            writeHFiles(csv, fs, report);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(runDir);
+            throw e;
+        }
+        report.writeMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    private void writeHFiles(InputStream csv, FileSystem fs, Report report) throws IOException {
+        TableDescriptor descriptor = TableCache.forConnection(connection).getDescriptor(tableName);
+        byte[][] startKeys;
+        try (RegionLocator regionLocator = connection.getRegionLocator(tableName)) {
+            startKeys = regionLocator.getStartKeys();
+        }
+
+        Map<String, StoreFileWriter> writers = new HashMap<>();
+        List<Cell> rowCells = new ArrayList<>();
+        byte[] currentRow = null;
+        int region = -1;
+        CsvReader reader = new CsvReader(csv);
+        List<byte[]> fields = new ArrayList<>(4);
+        try {
+            while (reader.readRecord(fields)) {
+                if (fields.size() == 1 && fields.get(0).length == 0) {
+                    // 空行
+                    continue;
+                }
+                if (fields.size() != 4) {
+                    throw new IOException("第" + reader.getRecordNumber() + "行应为 行键,列族,列,值");
+                }
+                byte[] row = fields.get(0);
+                if (currentRow == null || !Bytes.equals(row, currentRow)) {
+                    if (currentRow != null && Bytes.compareTo(row, currentRow) < 0) {
+                        throw new IOException("第" + reader.getRecordNumber() + "行的行键没有按升序排列："
+                                + Bytes.toStringBinary(row));
+                    }
+                    writeRow(rowCells, writers, descriptor, fs, report);
+                    currentRow = row;
+                    // 行键进入下一个Region时关闭当前Region的文件
+                    int rowRegion = regionOf(startKeys, row, Math.max(region, 0));
+                    if (rowRegion != region) {
+                        closeWriters(writers);
+                        region = rowRegion;
+                        report.regions++;
+                    }
+                }
+                rowCells.add(new KeyValue(row, fields.get(1), fields.get(2), timestamp, fields.get(3)));
+            }
+            writeRow(rowCells, writers, descriptor, fs, report);
+        } finally {
+            closeWriters(writers);
+        }
+    }
+
+    // 加载writeHFiles生成的文件，表的Region在此期间分裂时由BulkLoadHFiles重新切分
+    public void loadHFiles(Report report) throws IOException {
+        long start = System.currentTimeMillis();
+        if (report.files > 0) {
+            BulkLoadHFiles.create(connection.getConfiguration()).bulkLoad(tableName, report.stagingDir);
+        }
+        RowCache rowCache = RowCache.forConnection(connection);
+        if (rowCache != null) {
+            rowCache.invalidate(tableName);
+        }
+        SecondaryIndex.warnUnindexed(tableName, "BulkLoader", "rebuild()");
+        report.loadMillis = System.currentTimeMillis() - start;
+    }
+
+    // 删除失败只打印，不掩盖导入本身的结果
+    private void deleteQuietly(Path dir) {
+        try {
+            dir.getFileSystem(connection.getConfiguration()).delete(dir, true);
+        } catch (IOException e) {
+            System.out.println("临时目录删除失败：" + dir + "：" + e);
+        }
+    }
+
+    // rows升序，从上一个Region开始向后找
+    private static int regionOf(byte[][] startKeys, byte[] row, int from) {
+        int region = from;
+        while (region + 1 < startKeys.length && Bytes.compareTo(row, startKeys[region + 1]) >= 0) {
+            region++;
+        }
+        return region;
+    }
+
+    private void writeRow(List<Cell> rowCells, Map<String, StoreFileWriter> writers, TableDescriptor descriptor,
+                          FileSystem fs, Report report) throws IOException {
+        if (rowCells.isEmpty()) {
+            return;
+        }
+        // 排序是稳定的，相同单元格中后出现的排在后面
+        rowCells.sort(CellComparator.getInstance());
+        for (int i = 0; i < rowCells.size(); i++) {
+            Cell cell = rowCells.get(i);
+            if (i + 1 < rowCells.size() && CellUtil.matchingColumn(cell, rowCells.get(i + 1))) {
+                continue;
+            }
+            String family = Bytes.toString(CellUtil.cloneFamily(cell));
+            StoreFileWriter writer = writers.get(family);
+            if (writer == null) {
+                writer = createWriter(descriptor, family, fs, report.stagingDir);
+                writers.put(family, writer);
+                report.files++;
+            }
+            writer.append(cell);
+            report.cells++;
+            report.bytes += cell.getSerializedSize();
+        }
+        report.rows++;
+        rowCells.clear();
+    }
+
+    private StoreFileWriter createWriter(TableDescriptor descriptor, String family, FileSystem fs, Path dir)
+            throws IOException {
+        ColumnFamilyDescriptor cfd = descriptor.getColumnFamily(Bytes.toBytes(family));
+        if (cfd == null) {
+            throw new IOException("列族不存在：" + family);
+        }
+        HFileContext context = new HFileContextBuilder()
+                .withCompression(cfd.getCompressionType())
+                .withDataBlockEncoding(cfd.getDataBlockEncoding())
+                .withBlockSize(cfd.getBlocksize())
+                .withIncludesTags(true)
+                .withColumnFamily(cfd.getName())
+                .withTableName(tableName.getName())
+                .withCreateTime(System.currentTimeMillis())
+                .build();
+        return new StoreFileWriter.Builder(connection.getConfiguration(), fs)
+                .withOutputDir(new Path(dir, family))
+                .withBloomType(cfd.getBloomFilterType())
+                .withFileContext(context)
+                .build();
+    }
+
+    private static void closeWriters(Map<String, StoreFileWriter> writers) throws IOException {
+        IOException error = null;
+        for (StoreFileWriter writer : writers.values()) {
+            try {
+                // 与HFileOutputFormat2写入的元数据一致
+                writer.appendFileInfo(HStoreFile.BULKLOAD_TIME_KEY, Bytes.toBytes(System.currentTimeMillis()));
+                writer.appendFileInfo(HStoreFile.MAJOR_COMPACTION_KEY, Bytes.toBytes(true));
+                writer.appendFileInfo(HStoreFile.EXCLUDE_FROM_MINOR_COMPACTION_KEY, Bytes.toBytes(false));
+                writer.appendTrackedTimestampsToMetadata();
+                writer.close();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        writers.clear();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    // RFC 4180 CSV，字段按字节读取，引号内可以包含逗号、换行和转义的引号
+    static class CsvReader {
+        private final InputStream in;
+        private final ByteArrayOutputStream field = new ByteArrayOutputStream(64);
+        private long recordNumber;
+
+        CsvReader(InputStream in) {
+            this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 64 * 1024);
+        }
+
+        long getRecordNumber() {
+            return recordNumber;
+        }
+
+        // 读取一条记录到fields，到达末尾时返回false
+        boolean readRecord(List<byte[]> fields) throws IOException {
+            fields.clear();
+            int b = in.read();
+            if (b == -1) {
+                return false;
+            }
+            recordNumber++;
+            boolean quoted = false;
+            field.reset();
+            while (true) {
+                if (quoted) {
+                    if (b == -1) {
+                        throw new IOException("第" + recordNumber + "行的引号没有闭合");
+                    }
+                    if (b == '"') {
+                        b = in.read();
+                        if (b == '"') {
+                            field.write('"');
+                        } else {
+                            quoted = false;
+                            continue;
+                        }
+                    } else {
+                        field.write(b);
+                    }
+                } else if (b == '"' && field.size() == 0) {
+                    quoted = true;
+                } else if (b == ',') {
+                    fields.add(field.toByteArray());
+                    field.reset();
+                } else if (b == '\n' || b == -1) {
+                    fields.add(field.toByteArray());
+                    return true;
+                } else if (b == '\r') {
+                    // \r\n 换行
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                    fields.add(field.toByteArray());
+                    return true;
+                } else {
+                    field.write(b);
+                }
+                b = in.read();
+            }
+        }
+    }
+}
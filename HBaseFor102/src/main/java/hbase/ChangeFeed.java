@@ -0,0 +1,577 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: ChangeFeed
+ * Package: hbase
+ * Description: 表的增量变更流：每个子范围（按Region切分）记录一个时间水位，每轮对各子范围并行做setTimeRange扫描，
+ * 只读取水位之后写入的Cell，HBase按StoreFile的时间范围跳过旧文件，不用每次重新扫描整个范围
+ * 每轮的时间窗口向前多扫overlap毫秒，接住时钟偏差和扫描时还没有可见的写入；重叠部分已经交付过的Cell按行去重
+ * 扫描线程把结果放入有界队列，回调在调用线程中执行，回调慢时扫描线程阻塞，不会在内存中堆积结果
+ * 子范围的所有结果交付之后才推进它的水位，水位写入检查点文件，重启后从检查点继续，至少交付一次
+ * 一个对象只能在一个线程中poll/run
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/19 00:20
+ * @Version 1.0
+ */
+public class ChangeFeed implements Closeable {
+
+    public static final String WATERMARKS_FILE = "_watermarks";
+    public static final long DEFAULT_WINDOW_MS = TimeUnit.MINUTES.toMillis(5);
+    public static final long DEFAULT_OVERLAP_MS = TimeUnit.SECONDS.toMillis(10);
+    public static final long DEFAULT_POLL_INTERVAL_MS = 1000L;
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    // 一轮poll的统计
+    public static class Report {
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong cells = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private int splits;
+        private int failed;
+        private boolean caughtUp = true;
+        private long lagMillis;
+        private long millis;
+
+        // 交给回调的行数
+        public long getRows() {
+            return rows.get();
+        }
+
+        public long getCells() {
+            return cells.get();
+        }
+
+        // 重叠窗口内已经交付过而跳过的行数
+        public long getDuplicates() {
+            return duplicates.get();
+        }
+
+        public int getSplits() {
+            return splits;
+        }
+
+        // 扫描失败、水位没有推进的子范围数
+        public int getFailed() {
+            return failed;
+        }
+
+        // 所有子范围都已扫描到本轮开始的时间
+        public boolean isCaughtUp() {
+            return caughtUp;
+        }
+
+        // 本轮开始时间与最小水位的差
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return "rows=" + rows + ", cells=" + cells + ", duplicates=" + duplicates + ", splits=" + splits
+                    + ", failed=" + failed + ", caughtUp=" + caughtUp + ", lagMillis=" + lagMillis + ", millis=" + millis;
+        }
+    }
+
+    // 一个子范围的进度
+    private static final class SplitState {
+        private final ParallelScanner.ScanSplit split;
+        // 该时间之前写入的Cell已经全部交付（不包含）
+        private long watermark;
+        // 下一轮的时间跨度，空窗口之后加倍，从很早的水位开始时很快追上
+        private long window;
+        // 重叠窗口内已经交付的Cell
+        private final Set<DeliveredCell> delivered = new HashSet<>();
+
+        SplitState(ParallelScanner.ScanSplit split, long watermark, long window) {
+            this.split = split;
+            this.watermark = watermark;
+            this.window = window;
+        }
+    }
+
+    private static final class DeliveredCell {
+        private final byte[] row;
+        private final byte[] family;
+        private final byte[] qualifier;
+        private final long timestamp;
+        private final byte type;
+        private final int hash;
+
+        DeliveredCell(Cell cell) {
+            this.row = CellUtil.cloneRow(cell);
+            this.family = CellUtil.cloneFamily(cell);
+            this.qualifier = CellUtil.cloneQualifier(cell);
+            this.timestamp = cell.getTimestamp();
+            this.type = cell.getType().getCode();
+            this.hash = ((Bytes.hashCode(row) * 31 + Bytes.hashCode(family)) * 31 + Bytes.hashCode(qualifier)) * 31
+                    + Long.hashCode(timestamp);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DeliveredCell)) {
+                return false;
+            }
+            DeliveredCell other = (DeliveredCell) o;
+            return timestamp == other.timestamp && type == other.type && Arrays.equals(row, other.row)
+                    && Arrays.equals(family, other.family) && Arrays.equals(qualifier, other.qualifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // 扫描线程交给调用线程的结果，result和error都为null表示该子范围扫描结束
+    private static final class Delivery {
+        private final int split;
+        private final Result result;
+        private final Throwable error;
+
+        Delivery(int split, Result result, Throwable error) {
+            this.split = split;
+            this.result = result;
+            this.error = error;
+        }
+    }
+
+    private final Connection connection;
+    private final TableName tableName;
+    private byte[] startRow = new byte[0];
+    private byte[] stopRow = new byte[0];
+    private ScanOptions options = ScanOptions.bulkExport();
+    private Path checkpointDir;
+    private long startFrom = System.currentTimeMillis();
+    private long windowMs = DEFAULT_WINDOW_MS;
+    private long overlapMs = DEFAULT_OVERLAP_MS;
+    private long pollIntervalMs = DEFAULT_POLL_INTERVAL_MS;
+    private boolean includeDeletes;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private List<SplitState> states;
+    private ExecutorService executor;
+    private volatile boolean closed;
+
+    private ChangeFeed(Connection connection, TableName tableName) {
+        this.connection = connection;
+        this.tableName = tableName;
+        this.checkpointDir = Paths.get("changefeed-" + tableName.getNameAsString().replace(':', '_'));
+    }
+
+    public static ChangeFeed create(Connection connection, String namespace, String tableName) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        return new ChangeFeed(connection, TableName.valueOf(namespace, tableName));
+    }
+
+    // 行键范围[startRow, stopRow)，为null表示不限；检查点记录的范围与之不同时，第一次poll/run抛出IOException
+    public ChangeFeed range(String startRow, String stopRow) {
+        this.startRow = startRow == null ? new byte[0] : Bytes.toBytes(startRow);
+        this.stopRow = stopRow == null ? new byte[0] : Bytes.toBytes(stopRow);
+        return this;
+    }
+
+    // 扫描参数和列投影，默认ScanOptions.bulkExport()；不支持limit，否则窗口没有扫完水位就会推进
+    public ChangeFeed options(ScanOptions options) {
+        if (options != null && options.getLimit() != null) {
+            throw new IllegalArgumentException("变更流不支持limit");
+        }
+        this.options = options == null ? ScanOptions.bulkExport() : options;
+        return this;
+    }
+
+    // 检查点目录，为null时只在内存中记录水位
+    public ChangeFeed checkpointDir(String checkpointDir) {
+        this.checkpointDir = checkpointDir == null ? null : Paths.get(checkpointDir);
+        return this;
+    }
+
+    // 没有检查点时的起始水位，默认为创建时的时间，即只读之后的变更；0表示先读一遍全部数据
+    public ChangeFeed startFrom(long timestamp) {
+        this.startFrom = timestamp;
+        return this;
+    }
+
+    // 每轮扫描的时间跨度，落后很多时分多轮追赶，每轮交付的数据量有上限；子范围的窗口为空时下一轮加倍
+    public ChangeFeed window(long windowMs) {
+        if (windowMs <= 0) {
+            throw new IllegalArgumentException("时间窗口必须大于0");
+        }
+        this.windowMs = windowMs;
+        return this;
+    }
+
+    // 向水位之前多扫描的时间，应大于客户端与RegionServer的时钟偏差加上写入延迟
+    public ChangeFeed overlap(long overlapMs) {
+        if (overlapMs < 0) {
+            throw new IllegalArgumentException("重叠时间不能小于0");
+        }
+        this.overlapMs = overlapMs;
+        return this;
+    }
+
+    // run追上当前时间之后两轮之间的间隔
+    public ChangeFeed pollInterval(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+        return this;
+    }
+
+    // 以raw扫描读取删除标记，交给回调的Result中包含Delete类型的Cell
+    public ChangeFeed includeDeletes(boolean includeDeletes) {
+        this.includeDeletes = includeDeletes;
+        return this;
+    }
+
+    public ChangeFeed parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须大于0");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // 扫描线程和回调之间最多缓存的Result数
+    public ChangeFeed queueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("队列容量必须大于0");
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    // 各子范围当前的水位
+    public long[] getWatermarks() throws IOException {
+        init();
+        long[] watermarks = new long[states.size()];
+        for (int i = 0; i < watermarks.length; i++) {
+            watermarks[i] = states.get(i).watermark;
+        }
+        return watermarks;
+    }
+
+    /**
+     * 持续拉取变更，直到close或者出错，追上当前时间后每pollInterval毫秒一轮
+     * 出错时已经交付的子范围的水位已写入检查点，可以重新调用run继续
+     */
+    public void run(ParallelScanner.ResultHandler handler) throws IOException {
+        while (!closed) {
+            Report report;
+            try {
+                report = poll(handler);
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                throw e;
+            }
+            if (report.isCaughtUp() && !closed) {
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("变更流被中断");
+                }
+            }
+        }
+    }
+
+    /**
+     * 拉取一轮：每个子范围扫描[水位 - overlap, min(水位 + window, 当前时间))，结果在调用线程中交给handler
+     * 扫描失败的子范围水位不变，下一轮重新扫描；handler抛出异常时本轮结束，已经完整交付的子范围仍然推进水位
+     */
+    public Report poll(ParallelScanner.ResultHandler handler) throws IOException {
+        if (closed) {
+            throw new IOException("变更流已关闭");
+        }
+        init();
+        long start = System.currentTimeMillis();
+        long now = start;
+        Report report = new Report();
+        report.splits = states.size();
+
+        Scan template = new Scan();
+        options.apply(template);
+        if (includeDeletes) {
+            template.setRaw(true);
+        }
+        BlockingQueue<Delivery> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>(states.size());
+        long[] uppers = new long[states.size()];
+        boolean[] finished = new boolean[states.size()];
+        long[] scanned = new long[states.size()];
+        int active = 0;
+        for (int i = 0; i < states.size(); i++) {
+            SplitState state = states.get(i);
+            uppers[i] = state.watermark + state.window < now ? state.watermark + state.window : now;
+            if (uppers[i] < now) {
+                report.caughtUp = false;
+            }
+            if (uppers[i] <= state.watermark) {
+                continue;
+            }
+            Scan scan = state.split.toScan(template);
+            scan.setTimeRange(Math.max(0, state.watermark - overlapMs), uppers[i]);
+            int index = i;
+            try {
+                futures.add(executor.submit(() -> produce(index, scan, queue, cancelled)));
+            } catch (RejectedExecutionException e) {
+                // poll期间被其他线程close
+                cancelled.set(true);
+                throw new IOException("变更流已关闭");
+            }
+            active++;
+        }
+
+        Throwable error = null;
+        try {
+            while (active > 0) {
+                Delivery delivery = queue.take();
+                if (delivery.result != null) {
+                    scanned[delivery.split]++;
+                    deliver(states.get(delivery.split), uppers[delivery.split], delivery.result, handler, report);
+                    continue;
+                }
+                active--;
+                if (delivery.error != null) {
+                    report.failed++;
+                    report.caughtUp = false;
+                    error = error == null ? delivery.error : error;
+                } else {
+                    finished[delivery.split] = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("变更流被中断");
+        } finally {
+            cancelled.set(true);
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            // 完整交付的子范围推进水位
+            boolean advanced = false;
+            for (int i = 0; i < states.size(); i++) {
+                if (finished[i]) {
+                    advance(states.get(i), uppers[i], scanned[i] == 0);
+                    advanced = true;
+                }
+            }
+            if (advanced) {
+                writeCheckpoint();
+            }
+        }
+        if (error != null) {
+            throw error instanceof IOException ? (IOException) error : new IOException(error);
+        }
+        long minWatermark = Long.MAX_VALUE;
+        for (SplitState state : states) {
+            minWatermark = Math.min(minWatermark, state.watermark);
+        }
+        report.lagMillis = states.isEmpty() ? 0 : Math.max(0, now - minWatermark);
+        report.millis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    // 扫描线程：结果放入有界队列，队列满时阻塞；最后放入结束或失败标记
+    private void produce(int index, Scan scan, BlockingQueue<Delivery> queue, AtomicBoolean cancelled) {
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_SCAN, tableName);
+        long rows = 0;
+        long cells = 0;
+        Delivery last;
+        try {
+            Table table = TableCache.forConnection(connection).getTable(tableName);
+            try (ResultScanner resultScanner = table.getScanner(scan)) {
+                for (Result result = resultScanner.next(); result != null && !cancelled.get(); result = resultScanner.next()) {
+                    queue.put(new Delivery(index, result, null));
+                    rows++;
+                    cells += result.size();
+                }
+            }
+            timer.success(rows, cells, 0);
+            last = new Delivery(index, null, null);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            last = new Delivery(index, null, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (cancelled.get()) {
+            return;
+        }
+        try {
+            queue.put(last);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 行中有没有交付过的Cell时交给handler，handler返回之后才记为已交付
+     * 只有[水位 - overlap, 水位)内的Cell可能在上一轮交付过，只查这一段；只有[upper - overlap, upper)内的Cell
+     * 会在下一轮重叠窗口中再次出现，只记录这一段，已交付记录的大小与overlap内的写入量有关，与追赶的时间跨度无关
+     */
+    private void deliver(SplitState state, long upper, Result result, ParallelScanner.ResultHandler handler,
+                         Report report) throws IOException {
+        Cell[] cells = result.rawCells();
+        boolean changed = false;
+        for (Cell cell : cells) {
+            if (cell.getTimestamp() >= state.watermark || !state.delivered.contains(new DeliveredCell(cell))) {
+                changed = true;
+                break;
+            }
+        }
+        if (!changed) {
+            report.duplicates.incrementAndGet();
+            return;
+        }
+        handler.onResult(result);
+        long recordFrom = upper - overlapMs;
+        for (Cell cell : cells) {
+            if (cell.getTimestamp() >= recordFrom) {
+                state.delivered.add(new DeliveredCell(cell));
+            }
+        }
+        report.rows.incrementAndGet();
+        report.cells.addAndGet(cells.length);
+    }
+
+    // 推进水位，调整下一轮的窗口，移除下一轮重叠窗口之外的已交付记录
+    private void advance(SplitState state, long watermark, boolean empty) {
+        state.watermark = Math.max(state.watermark, watermark);
+        state.window = empty ? Math.min(state.window * 2, Long.MAX_VALUE / 4) : windowMs;
+        long low = state.watermark - overlapMs;
+        for (Iterator<DeliveredCell> it = state.delivered.iterator(); it.hasNext(); ) {
+            if (it.next().timestamp < low) {
+                it.remove();
+            }
+        }
+    }
+
+    private void init() throws IOException {
+        if (states == null) {
+            states = loadOrCreateStates();
+            AtomicInteger threadId = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(parallelism, r -> {
+                Thread thread = new Thread(r, "change-feed-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // 检查点第一行，记录表和行键范围，换了表或范围时不能沿用原来的子范围和水位
+    private String checkpointHeader() {
+        return "#table=" + tableName.getNameAsString() + ",start=" + Bytes.toHex(startRow) + ",stop=" + Bytes.toHex(stopRow);
+    }
+
+    // 读取检查点中的子范围和水位，没有时按当前的Region边界切分，之后一直沿用，不受Region分裂影响
+    // 检查点记录的表或范围与本次不同时抛出IOException
+    private List<SplitState> loadOrCreateStates() throws IOException {
+        List<SplitState> loaded = new ArrayList<>();
+        Path file = checkpointDir == null ? null : checkpointDir.resolve(WATERMARKS_FILE);
+        if (file != null && Files.exists(file)) {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            String header = checkpointHeader();
+            String recorded = lines.isEmpty() ? "" : lines.get(0);
+            if (!header.equals(recorded)) {
+                throw new IOException("检查点目录" + checkpointDir + "属于其他表或行键范围，请换一个检查点目录或删除该目录："
+                        + "记录的是[" + recorded + "]，本次是[" + header + "]");
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                // 序号,起始行键十六进制,结束行键十六进制,水位,Region
+                String[] fields = line.split(",", 5);
+                loaded.add(new SplitState(new ParallelScanner.ScanSplit(Bytes.fromHex(fields[1]),
+                        Bytes.fromHex(fields[2]), fields[4]), Long.parseLong(fields[3]), windowMs));
+            }
+            return loaded;
+        }
+        for (ParallelScanner.ScanSplit split : ParallelScanner.split(connection, tableName, startRow, stopRow)) {
+            loaded.add(new SplitState(split, startFrom, windowMs));
+        }
+        states = loaded;
+        writeCheckpoint();
+        return loaded;
+    }
+
+    // 先写临时文件再改名，中途退出时检查点仍是上一次完整的内容
+    private void writeCheckpoint() throws IOException {
+        if (checkpointDir == null) {
+            return;
+        }
+        Files.createDirectories(checkpointDir);
+        List<String> lines = new ArrayList<>(states.size() + 1);
+        lines.add(checkpointHeader());
+        for (int i = 0; i < states.size(); i++) {
+            SplitState state = states.get(i);
+            lines.add(i + "," + Bytes.toHex(state.split.getStartRow()) + "," + Bytes.toHex(state.split.getStopRow())
+                    + "," + state.watermark + "," + state.split.getRegionName());
+        }
+        Path file = checkpointDir.resolve(WATERMARKS_FILE);
+        Path tmp = file.resolveSibling(WATERMARKS_FILE + ".inprogress");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // 停止run，正在进行的一轮结束后返回
+    @Override
+    public void close() {
+        closed = true;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
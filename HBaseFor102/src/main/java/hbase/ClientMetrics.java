@@ -0,0 +1,261 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: ClientMetrics
+ * Package: hbase
+ * Description: HBaseUtils各操作的客户端指标：延迟分布、请求数、行数、Cell数、字节数、错误数、重试数
+ * 重试数只有Scan类操作能从ScanMetrics得到，put/get/delete/increment等操作的重试数为-1（未知）
+ * 批量操作部分行失败时，成功部分的行数、Cell数、字节数照常计入，同时记一次错误
+ * 分别按操作、操作+表、操作+表+Region（需要setPerRegion(true)）汇总，
+ * 注册为JMX的hbase.client:type=ClientMetrics,*，也可以通过startReporter定期输出
+ * 记录一次只有几次Map查找和原子加，默认开启
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 17:10
+ * @Version 1.0
+ */
+public class ClientMetrics {
+
+    public static final String OP_CREATE_TABLE = "createTable";
+    public static final String OP_PUT = "put";
+    public static final String OP_GET = "get";
+    // 命中RowCache的get
+    public static final String OP_GET_CACHED = "getCached";
+    public static final String OP_MULTI_GET = "multiGet";
+    public static final String OP_DELETE = "delete";
+    public static final String OP_SCAN = "scan";
+    public static final String OP_BULK_LOAD = "bulkLoad";
+    public static final String OP_BULK_DELETE = "bulkDelete";
+    public static final String OP_INCREMENT = "increment";
+    // 通过二级索引按值查询，包括索引扫描和数据表的批量get
+    public static final String OP_INDEX_LOOKUP = "indexLookup";
+    // HedgedReader的一次get，包括备份请求；其中每个请求另外记为get
+    public static final String OP_HEDGED_GET = "hedgedGet";
+
+    public static final String JMX_DOMAIN = "hbase.client";
+
+    private static final ClientMetrics INSTANCE = new ClientMetrics();
+
+    private final Map<String, OperationMetrics> metrics = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+    private volatile boolean perRegion = false;
+    private volatile boolean jmxEnabled = true;
+    private ScheduledExecutorService reporterExecutor;
+
+    public static ClientMetrics get() {
+        return INSTANCE;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 按Region统计需要定位行键所在的Region（使用客户端缓存），默认关闭
+    public void setPerRegion(boolean perRegion) {
+        this.perRegion = perRegion;
+    }
+
+    public boolean isPerRegion() {
+        return perRegion;
+    }
+
+    // 只影响之后新建的指标
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    // 一次操作的计时
+    public class Timer {
+        private final String operation;
+        private final String table;
+        private final long startNanos = System.nanoTime();
+        private String region;
+        // 未知时为-1
+        private long retries = -1;
+
+        Timer(String operation, String table) {
+            this.operation = operation;
+            this.table = table;
+        }
+
+        // 单行操作按Region统计
+        public Timer region(Connection connection, TableName tn, byte[] row) {
+            if (perRegion && enabled) {
+                region = regionOf(connection, tn, row);
+            }
+            return this;
+        }
+
+        // Scan结束后从ScanMetrics中获取重试次数，字节数以ScanMetrics为准
+        public void success(ScanMetrics scanMetrics, long rows, long cells) {
+            if (scanMetrics == null) {
+                success(rows, cells, 0);
+                return;
+            }
+            retries = scanMetrics.countOfRPCRetries.get() + scanMetrics.countOfRemoteRPCRetries.get();
+            success(rows, cells, scanMetrics.countOfBytesInResults.get());
+        }
+
+        public void success(long rows, long cells, long bytes) {
+            stop(rows, cells, bytes, false);
+        }
+
+        // 批量操作部分成功：计入成功部分的行数、Cell数、字节数，同时记一次错误
+        public void partial(long rows, long cells, long bytes) {
+            stop(rows, cells, bytes, true);
+        }
+
+        public void failure(Throwable t) {
+            stop(0, 0, 0, true);
+        }
+
+        private void stop(long rows, long cells, long bytes, boolean error) {
+            if (!enabled) {
+                return;
+            }
+            long micros = (System.nanoTime() - startNanos) / 1000;
+            record(operation, null, null, micros, rows, cells, bytes, error, retries);
+            if (table != null) {
+                record(operation, table, null, micros, rows, cells, bytes, error, retries);
+                if (region != null) {
+                    record(operation, table, region, micros, rows, cells, bytes, error, retries);
+                }
+            }
+        }
+    }
+
+    public Timer start(String operation, TableName tn) {
+        return new Timer(operation, tn == null ? null : tn.getNameAsString());
+    }
+
+    private void record(String operation, String table, String region, long micros,
+                        long rows, long cells, long bytes, boolean error, long retries) {
+        OperationMetrics operationMetrics = getOrCreate(operation, table, region);
+        operationMetrics.record(micros, rows, cells, bytes, error);
+        if (retries >= 0) {
+            operationMetrics.addRetries(retries);
+        }
+    }
+
+    private OperationMetrics getOrCreate(String operation, String table, String region) {
+        String key = operation + "|" + (table == null ? "" : table) + "|" + (region == null ? "" : region);
+        OperationMetrics operationMetrics = metrics.get(key);
+        if (operationMetrics == null) {
+            operationMetrics = metrics.computeIfAbsent(key, k -> {
+                OperationMetrics created = new OperationMetrics(operation, table, region);
+                if (jmxEnabled) {
+                    register(created);
+                }
+                return created;
+            });
+        }
+        return operationMetrics;
+    }
+
+    private static String regionOf(Connection connection, TableName tn, byte[] row) {
+        try (RegionLocator regionLocator = connection.getRegionLocator(tn)) {
+            return regionLocator.getRegionLocation(row).getRegion().getEncodedName();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void register(OperationMetrics operationMetrics) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(operationMetrics);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(operationMetrics, objectName);
+            }
+        } catch (Exception e) {
+            // JMX注册失败不影响统计
+            System.out.println("注册JMX指标失败：" + e);
+        }
+    }
+
+    private static ObjectName objectName(OperationMetrics operationMetrics) throws Exception {
+        StringBuilder name = new StringBuilder(JMX_DOMAIN).append(":type=ClientMetrics,operation=")
+                .append(operationMetrics.getOperation());
+        if (operationMetrics.getTable() != null) {
+            name.append(",table=").append(ObjectName.quote(operationMetrics.getTable()));
+        }
+        if (operationMetrics.getRegion() != null) {
+            name.append(",region=").append(operationMetrics.getRegion());
+        }
+        return new ObjectName(name.toString());
+    }
+
+    // 所有表汇总的指标，没有请求过时返回null
+    public OperationMetrics getOperation(String operation) {
+        return metrics.get(operation + "||");
+    }
+
+    public OperationMetrics getOperation(String operation, TableName tn) {
+        return metrics.get(operation + "|" + tn.getNameAsString() + "|");
+    }
+
+    public Collection<OperationMetrics> getAll() {
+        List<OperationMetrics> all = new ArrayList<>(metrics.values());
+        // 汇总在前，明细在后
+        Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.<String>naturalOrder());
+        all.sort(Comparator.comparing(OperationMetrics::getOperation)
+                .thenComparing(OperationMetrics::getTable, nullsFirst)
+                .thenComparing(OperationMetrics::getRegion, nullsFirst));
+        return all;
+    }
+
+    public void reset() {
+        for (OperationMetrics operationMetrics : metrics.values()) {
+            operationMetrics.reset();
+        }
+    }
+
+    // 定期调用reporter，返回值可用于取消
+    public synchronized ScheduledFuture<?> startReporter(MetricsReporter reporter, long period, TimeUnit unit) {
+        if (reporterExecutor == null) {
+            reporterExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "hbase-client-metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return reporterExecutor.scheduleAtFixedRate(() -> {
+            try {
+                reporter.report(getAll());
+            } catch (RuntimeException e) {
+                System.out.println("输出指标失败：" + e);
+            }
+        }, period, period, unit);
+    }
+
+    public synchronized void stopReporters() {
+        if (reporterExecutor != null) {
+            reporterExecutor.shutdownNow();
+            reporterExecutor = null;
+        }
+    }
+}
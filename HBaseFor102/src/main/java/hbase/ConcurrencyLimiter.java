@@ -0,0 +1,182 @@
+package hbase;
+
+import org.apache.hadoop.hbase.CallQueueTooBigException;
+import org.apache.hadoop.hbase.RegionTooBusyException;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.ipc.ServerTooBusyException;
+import org.apache.hadoop.hbase.quotas.RpcThrottlingException;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: ConcurrencyLimiter
+ * Package: hbase
+ * Description: 一个RegionServer上的写并发限制，按AIMD调整：请求成功且延迟低于目标时每轮加1，
+ * 出现过载异常或延迟超过目标时乘以backoffRatio，一个冷却期内最多减一次，避免同一波失败把限制压到最低
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 23:10
+ * @Version 1.0
+ */
+public class ConcurrencyLimiter implements ConcurrencyLimiterMXBean {
+
+    private final String server;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long lastDecreaseNanos;
+    private long increases;
+    private long decreases;
+    private long overloads;
+    private long throttledNanos;
+
+    ConcurrencyLimiter(String server, int initialLimit, int minLimit, int maxLimit, long latencyTargetMs,
+                       double backoffRatio) {
+        this.server = server;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMs);
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime() - latencyTargetNanos;
+    }
+
+    // 并发已满时等待
+    public synchronized void acquire() throws InterruptedIOException {
+        if (inFlight < (int) limit) {
+            inFlight++;
+            return;
+        }
+        long start = System.nanoTime();
+        waiting++;
+        try {
+            while (inFlight >= (int) limit) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待写并发被中断");
+        } finally {
+            waiting--;
+            throttledNanos += System.nanoTime() - start;
+        }
+        inFlight++;
+    }
+
+    /**
+     * 请求结束时调用
+     * @param latencyNanos 请求耗时，包括客户端内部的重试
+     * @param error        成功时为null
+     */
+    public synchronized void release(long latencyNanos, Throwable error) {
+        inFlight--;
+        boolean overload = isOverload(error);
+        if (overload) {
+            overloads++;
+        }
+        if (overload || latencyNanos > latencyTargetNanos) {
+            decrease();
+        } else if (error == null && limit < maxLimit && inFlight + 1 >= (int) limit) {
+            // 只有并发真正用满时才增加，空闲时的低延迟不能说明能承受更高的并发
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+            increases++;
+        }
+        notifyAll();
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos < latencyTargetNanos) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        double decreased = Math.max(minLimit, limit * backoffRatio);
+        if (decreased < limit) {
+            limit = decreased;
+            decreases++;
+        }
+    }
+
+    // RegionServer过载时的异常，可能被客户端重试后包装
+    static boolean isOverload(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof RegionTooBusyException || t instanceof CallQueueTooBigException
+                    || t instanceof ServerTooBusyException || t instanceof RpcThrottlingException) {
+                return true;
+            }
+            if (t instanceof RetriesExhaustedWithDetailsException) {
+                for (Throwable cause : ((RetriesExhaustedWithDetailsException) t).getCauses()) {
+                    if (isOverload(cause)) {
+                        return true;
+                    }
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getServer() {
+        return server;
+    }
+
+    @Override
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public synchronized int getWaiting() {
+        return waiting;
+    }
+
+    @Override
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    @Override
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    @Override
+    public synchronized long getIncreases() {
+        return increases;
+    }
+
+    @Override
+    public synchronized long getDecreases() {
+        return decreases;
+    }
+
+    @Override
+    public synchronized long getOverloads() {
+        return overloads;
+    }
+
+    @Override
+    public synchronized long getThrottledMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(throttledNanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return server + " limit=" + (int) limit + ", inFlight=" + inFlight + ", waiting=" + waiting
+                + ", increases=" + increases + ", decreases=" + decreases + ", overloads=" + overloads
+                + ", throttledMillis=" + TimeUnit.NANOSECONDS.toMillis(throttledNanos);
+    }
+}
@@ -0,0 +1,35 @@
+package hbase;
+
+/**
+ * ClassName: ConcurrencyLimiterMXBean
+ * Package: hbase
+ * Description: 通过JMX暴露的单个RegionServer的写并发限制
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 23:10
+ * @Version 1.0
+ */
+public interface ConcurrencyLimiterMXBean {
+    String getServer();
+
+    // 当前允许的并发写请求数
+    int getLimit();
+
+    int getInFlight();
+
+    int getWaiting();
+
+    int getMinLimit();
+
+    int getMaxLimit();
+
+    long getIncreases();
+
+    long getDecreases();
+
+    // 收到的RegionTooBusyException、CallQueueTooBigException等过载异常数
+    long getOverloads();
+
+    // 因为并发已满而等待的总时间
+    long getThrottledMillis();
+}
@@ -0,0 +1,392 @@
+package hbase;
+
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.ByteArrayComparable;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FuzzyRowFilter;
+import org.apache.hadoop.hbase.filter.LongComparator;
+import org.apache.hadoop.hbase.filter.PrefixFilter;
+import org.apache.hadoop.hbase.filter.RowFilter;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ClassName: Condition
+ * Package: hbase
+ * Description: 过滤条件树，AND/OR组合列值条件和行键条件，编译为服务端的Filter
+ * 列值按类型比较：STRING按字节序；LONG使用LongComparator；INT把有符号区间拆成无符号字节区间，
+ * 因此Bytes.toBytes(int/long)写入的负数也能正确比较
+ * LONG/INT只适用于Bytes.toBytes(long/int)写入的定长值：putData写入的十进制字符串（如"12"）用LONG比较时服务端抛异常导致扫描失败，
+ * 用INT比较时结果不正确；这类列只能按STRING做字节序比较，数值大小比较需要写入时使用定长编码
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 13:20
+ * @Version 1.0
+ */
+public abstract class Condition {
+
+    // 列值的编码类型
+    public enum ValueType {
+        // Bytes.toBytes(String)
+        STRING,
+        // Bytes.toBytes(int)，4字节
+        INT,
+        // Bytes.toBytes(long)，8字节
+        LONG
+    }
+
+    public abstract Filter toFilter();
+
+    // 条件中引用到的列，列投影时需要一并读取
+    abstract void collectColumns(List<ColumnCondition> columns);
+
+    // 组合
+    public static Condition and(Condition... conditions) {
+        return new And(Arrays.asList(conditions));
+    }
+
+    public static Condition or(Condition... conditions) {
+        return new Or(Arrays.asList(conditions));
+    }
+
+    // 列值条件
+    public static ColumnCondition eq(String cf, String cl, String value) {
+        return compare(cf, cl, CompareOperator.EQUAL, value);
+    }
+
+    public static ColumnCondition compare(String cf, String cl, CompareOperator op, String value) {
+        return new ColumnCondition(cf, cl, op, ValueType.STRING, Bytes.toBytes(value));
+    }
+
+    public static ColumnCondition compare(String cf, String cl, CompareOperator op, int value) {
+        return new ColumnCondition(cf, cl, op, ValueType.INT, Bytes.toBytes(value));
+    }
+
+    public static ColumnCondition compare(String cf, String cl, CompareOperator op, long value) {
+        return new ColumnCondition(cf, cl, op, ValueType.LONG, Bytes.toBytes(value));
+    }
+
+    // 行键条件
+    public static Condition rowPrefix(String prefix) {
+        return new RowPrefix(Bytes.toBytes(prefix));
+    }
+
+    // [startRow, stopRow)，null表示不限
+    public static Condition rowRange(String startRow, String stopRow) {
+        return new RowRange(startRow == null ? null : Bytes.toBytes(startRow),
+                stopRow == null ? null : Bytes.toBytes(stopRow));
+    }
+
+    // 行键属于给定集合
+    public static Condition rowIn(String... rowKeys) {
+        List<byte[]> keys = new ArrayList<>(rowKeys.length);
+        for (String rowKey : rowKeys) {
+            keys.add(Bytes.toBytes(rowKey));
+        }
+        return new RowIn(keys);
+    }
+
+    // 定长行键的模糊匹配，pattern中wildcard所在位置可以是任意字节，如 "????_20241001" 匹配任意4字节前缀
+    public static Condition rowFuzzy(String pattern, char wildcard) {
+        byte[] key = Bytes.toBytes(pattern);
+        byte[] mask = new byte[key.length];
+        for (int i = 0; i < key.length; i++) {
+            // FuzzyRowFilter的掩码：0表示固定，1表示任意
+            if (key[i] == (byte) wildcard) {
+                key[i] = 0;
+                mask[i] = 1;
+            }
+        }
+        return new RowFuzzy(key, mask);
+    }
+
+    // 前缀扫描的结束行键：最后一个不是0xFF的字节加1，全是0xFF时返回空数组表示不限
+    public static byte[] prefixStopRow(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xFF) {
+                byte[] stop = Arrays.copyOf(prefix, i + 1);
+                stop[i]++;
+                return stop;
+            }
+        }
+        return new byte[0];
+    }
+
+    public static class And extends Condition {
+        private final List<Condition> children;
+
+        And(List<Condition> children) {
+            this.children = children;
+        }
+
+        public List<Condition> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        @Override
+        public Filter toFilter() {
+            FilterList filterList = new FilterList(FilterList.Operator.MUST_PASS_ALL);
+            for (Condition child : children) {
+                filterList.addFilter(child.toFilter());
+            }
+            return filterList;
+        }
+
+        @Override
+        void collectColumns(List<ColumnCondition> columns) {
+            for (Condition child : children) {
+                child.collectColumns(columns);
+            }
+        }
+    }
+
+    public static class Or extends Condition {
+        private final List<Condition> children;
+
+        Or(List<Condition> children) {
+            this.children = children;
+        }
+
+        public List<Condition> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        @Override
+        public Filter toFilter() {
+            FilterList filterList = new FilterList(FilterList.Operator.MUST_PASS_ONE);
+            for (Condition child : children) {
+                filterList.addFilter(child.toFilter());
+            }
+            return filterList;
+        }
+
+        @Override
+        void collectColumns(List<ColumnCondition> columns) {
+            for (Condition child : children) {
+                child.collectColumns(columns);
+            }
+        }
+    }
+
+    public static class ColumnCondition extends Condition {
+        private final byte[] family;
+        private final byte[] qualifier;
+        private final CompareOperator op;
+        private final ValueType type;
+        private final byte[] value;
+        // 对于没有这个列的数据，默认跳过
+        private boolean filterIfMissing = true;
+
+        ColumnCondition(String cf, String cl, CompareOperator op, ValueType type, byte[] value) {
+            if (cf == null || cf.trim().isEmpty() || cl == null || cl.trim().isEmpty()) {
+                throw new IllegalArgumentException("列族和列不能为空");
+            }
+            this.family = Bytes.toBytes(cf);
+            this.qualifier = Bytes.toBytes(cl);
+            this.op = op;
+            this.type = type;
+            this.value = value;
+        }
+
+        // false表示保留没有这个列的数据
+        public ColumnCondition filterIfMissing(boolean filterIfMissing) {
+            this.filterIfMissing = filterIfMissing;
+            return this;
+        }
+
+        public byte[] getFamily() {
+            return family;
+        }
+
+        public byte[] getQualifier() {
+            return qualifier;
+        }
+
+        @Override
+        public Filter toFilter() {
+            switch (type) {
+                case LONG:
+                    return single(op, new LongComparator(Bytes.toLong(value)));
+                case INT:
+                    return intFilter(Bytes.toInt(value));
+                default:
+                    return single(op, new BinaryComparator(value));
+            }
+        }
+
+        private SingleColumnValueFilter single(CompareOperator op, ByteArrayComparable comparator) {
+            SingleColumnValueFilter filter = new SingleColumnValueFilter(family, qualifier, op, comparator);
+            filter.setFilterIfMissing(filterIfMissing);
+            return filter;
+        }
+
+        // 相等和不等与字节比较一致，范围比较转换为有符号区间[lo, hi]
+        private Filter intFilter(int x) {
+            switch (op) {
+                case GREATER_OR_EQUAL:
+                    return intRange(x, Integer.MAX_VALUE);
+                case GREATER:
+                    return x == Integer.MAX_VALUE ? nothing() : intRange(x + 1, Integer.MAX_VALUE);
+                case LESS_OR_EQUAL:
+                    return intRange(Integer.MIN_VALUE, x);
+                case LESS:
+                    return x == Integer.MIN_VALUE ? nothing() : intRange(Integer.MIN_VALUE, x - 1);
+                default:
+                    return single(op, new BinaryComparator(Bytes.toBytes(x)));
+            }
+        }
+
+        // 大端补码按无符号字节序排列为 0..MAX, MIN..-1，跨越0的区间拆成两段
+        private Filter intRange(int lo, int hi) {
+            if (lo < 0 && hi >= 0) {
+                return new FilterList(FilterList.Operator.MUST_PASS_ONE,
+                        unsignedRange(lo, -1), unsignedRange(0, hi));
+            }
+            return unsignedRange(lo, hi);
+        }
+
+        private Filter unsignedRange(int lo, int hi) {
+            return new FilterList(FilterList.Operator.MUST_PASS_ALL,
+                    single(CompareOperator.GREATER_OR_EQUAL, new BinaryComparator(Bytes.toBytes(lo))),
+                    single(CompareOperator.LESS_OR_EQUAL, new BinaryComparator(Bytes.toBytes(hi))));
+        }
+
+        // 不可能满足的条件
+        private Filter nothing() {
+            return single(CompareOperator.LESS, new BinaryComparator(new byte[0]));
+        }
+
+        @Override
+        void collectColumns(List<ColumnCondition> columns) {
+            columns.add(this);
+        }
+
+        @Override
+        public String toString() {
+            return Bytes.toString(family) + ":" + Bytes.toString(qualifier) + " " + op + " " + type;
+        }
+    }
+
+    public static class RowPrefix extends Condition {
+        private final byte[] prefix;
+
+        RowPrefix(byte[] prefix) {
+            this.prefix = prefix;
+        }
+
+        public byte[] getPrefix() {
+            return prefix;
+        }
+
+        @Override
+        public Filter toFilter() {
+            return new PrefixFilter(prefix);
+        }
+
+        @Override
+        void collectColumns(List<ColumnCondition> columns) {
+        }
+    }
+
+    public static class RowRange extends Condition {
+        private final byte[] startRow;
+        private final byte[] stopRow;
+
+        RowRange(byte[] startRow, byte[] stopRow) {
+            this.startRow = startRow == null ? new byte[0] : startRow;
+            this.stopRow = stopRow == null ? new byte[0] : stopRow;
+        }
+
+        // 包含，空数组表示不限
+        public byte[] getStartRow() {
+            return startRow;
+        }
+
+        // 不包含，空数组表示不限
+        public byte[] getStopRow() {
+            return stopRow;
+        }
+
+        @Override
+        public Filter toFilter() {
+            List<Filter> filters = new ArrayList<>();
+            if (startRow.length > 0) {
+                filters.add(new RowFilter(CompareOperator.GREATER_OR_EQUAL, new BinaryComparator(startRow)));
+            }
+            if (stopRow.length > 0) {
+                filters.add(new RowFilter(CompareOperator.LESS, new BinaryComparator(stopRow)));
+            }
+            return new FilterList(FilterList.Operator.MUST_PASS_ALL, filters);
+        }
+
+        @Override
+        void collectColumns(List<ColumnCondition> columns) {
+        }
+    }
+
+    public static class RowIn extends Condition {
+        private final List<byte[]> rowKeys;
+
+        RowIn(List<byte[]> rowKeys) {
+            if (rowKeys.isEmpty()) {
+                throw new IllegalArgumentException("行键集合不能为空");
+            }
+            this.rowKeys = rowKeys;
+        }
+
+        public List<byte[]> getRowKeys() {
+            return Collections.unmodifiableList(rowKeys);
+        }
+
+        @Override
+        public Filter toFilter() {
+            FilterList filterList = new FilterList(FilterList.Operator.MUST_PASS_ONE);
+            for (byte[] rowKey : rowKeys) {
+                filterList.addFilter(new RowFilter(CompareOperator.EQUAL, new BinaryComparator(rowKey)));
+            }
+            return filterList;
+        }
+
+        @Override
+        void collectColumns(List<ColumnCondition> columns) {
+        }
+    }
+
+    public static class RowFuzzy extends Condition {
+        private final byte[] key;
+        private final byte[] mask;
+
+        RowFuzzy(byte[] key, byte[] mask) {
+            this.key = key;
+            this.mask = mask;
+        }
+
+        // 第一个任意字节之前的固定前缀
+        public byte[] getFixedPrefix() {
+            int i = 0;
+            while (i < mask.length && mask[i] == 0) {
+                i++;
+            }
+            return Arrays.copyOf(key, i);
+        }
+
+        @Override
+        public Filter toFilter() {
+            // FuzzyRowFilter会修改传入的数组，这里复制一份
+            return new FuzzyRowFilter(Collections.singletonList(
+                    new Pair<>(key.clone(), mask.clone())));
+        }
+
+        @Override
+        void collectColumns(List<ColumnCondition> columns) {
+        }
+    }
+}
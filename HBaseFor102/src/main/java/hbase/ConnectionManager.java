@@ -0,0 +1,235 @@
+package hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.AsyncConnection;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.RegionLocator;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * ClassName: ConnectionManager
+ * Package: hbase
+ * Description: 按集群名管理Connection/AsyncConnection，配置从hbase-clusters.properties加载
+ * 连接在第一次使用时创建，创建后按配置预取Region位置；JVM退出时统一关闭
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 15:00
+ * @Version 1.0
+ */
+public class ConnectionManager {
+
+    public static final String DEFAULT_CLUSTER = "default";
+    // classpath中的配置文件
+    public static final String CONFIG_RESOURCE = "hbase-clusters.properties";
+    // 指定外部配置文件的系统属性
+    public static final String CONFIG_PROPERTY = "hbase.clusters.config";
+    // 连接建立后预取Region位置的表，逗号分隔
+    public static final String WARMUP_TABLES = "warmup.tables";
+
+    // 常用的调优参数，写在配置文件中时加上集群名前缀
+    public static final String RPC_TIMEOUT = "hbase.rpc.timeout";
+    public static final String OPERATION_TIMEOUT = "hbase.client.operation.timeout";
+    public static final String SCANNER_TIMEOUT = "hbase.client.scanner.timeout.period";
+    public static final String RETRIES = "hbase.client.retries.number";
+    public static final String PAUSE = "hbase.client.pause";
+    public static final String TABLE_THREADS = "hbase.htable.threads.max";
+    public static final String CONNECTION_THREADS = "hbase.hconnection.threads.max";
+    public static final String META_OPERATION_TIMEOUT = "hbase.client.meta.operation.timeout";
+
+    private static final Map<String, Connection> CONNECTIONS = new ConcurrentHashMap<>();
+    private static final Map<String, AsyncConnection> ASYNC_CONNECTIONS = new ConcurrentHashMap<>();
+    private static volatile Properties properties;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ConnectionManager::shutdown, "hbase-connection-shutdown"));
+    }
+
+    private ConnectionManager() {
+    }
+
+    // 默认集群的连接
+    public static Connection getConnection() throws IOException {
+        return getConnection(DEFAULT_CLUSTER);
+    }
+
+    public static Connection getConnection(String cluster) throws IOException {
+        Connection connection = CONNECTIONS.get(cluster);
+        if (connection != null && !connection.isClosed()) {
+            return connection;
+        }
+        synchronized (ConnectionManager.class) {
+            connection = CONNECTIONS.get(cluster);
+            if (connection == null || connection.isClosed()) {
+                Configuration conf = getConfiguration(cluster);
+                connection = ConnectionFactory.createConnection(conf);
+                CONNECTIONS.put(cluster, connection);
+                warmUp(connection, getWarmUpTables(cluster));
+            }
+            return connection;
+        }
+    }
+
+    public static AsyncConnection getAsyncConnection() throws IOException {
+        return getAsyncConnection(DEFAULT_CLUSTER);
+    }
+
+    public static AsyncConnection getAsyncConnection(String cluster) throws IOException {
+        AsyncConnection connection = ASYNC_CONNECTIONS.get(cluster);
+        if (connection != null && !connection.isClosed()) {
+            return connection;
+        }
+        synchronized (ConnectionManager.class) {
+            connection = ASYNC_CONNECTIONS.get(cluster);
+            if (connection == null || connection.isClosed()) {
+                try {
+                    connection = ConnectionFactory.createAsyncConnection(getConfiguration(cluster)).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("创建异步连接被中断");
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+                ASYNC_CONNECTIONS.put(cluster, connection);
+            }
+            return connection;
+        }
+    }
+
+    // 集群的HBase配置：hbase-site.xml + 配置文件中以"集群名."开头的配置项
+    public static Configuration getConfiguration(String cluster) throws IOException {
+        Properties props = getProperties();
+        String prefix = cluster + ".";
+        Configuration conf = HBaseConfiguration.create();
+        boolean found = false;
+        for (String name : props.stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                String key = name.substring(prefix.length());
+                if (!key.equals(WARMUP_TABLES)) {
+                    conf.set(key, props.getProperty(name).trim());
+                }
+                found = true;
+            }
+        }
+        if (!found && !DEFAULT_CLUSTER.equals(cluster)) {
+            throw new IOException("没有找到集群配置：" + cluster);
+        }
+        return conf;
+    }
+
+    public static List<String> getClusters() throws IOException {
+        String clusters = getProperties().getProperty("clusters", DEFAULT_CLUSTER);
+        List<String> result = new ArrayList<>();
+        for (String cluster : clusters.split(",")) {
+            if (!cluster.trim().isEmpty()) {
+                result.add(cluster.trim());
+            }
+        }
+        return result;
+    }
+
+    private static List<String> getWarmUpTables(String cluster) throws IOException {
+        String tables = getProperties().getProperty(cluster + "." + WARMUP_TABLES);
+        if (tables == null || tables.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        for (String table : tables.split(",")) {
+            if (!table.trim().isEmpty()) {
+                result.add(table.trim());
+            }
+        }
+        return result;
+    }
+
+    // 预取指定集群中这些表的Region位置，连接不存在时会先建立连接
+    public static void warmUp(String cluster, String... tables) throws IOException {
+        warmUp(getConnection(cluster), Arrays.asList(tables));
+    }
+
+    /**
+     * 预取表的全部Region位置到客户端缓存，避免第一次读写时再去查meta
+     *
+     * @param tables namespace:table 形式的表名
+     */
+    public static void warmUp(Connection connection, List<String> tables) {
+        for (String table : tables) {
+            TableName tn = TableName.valueOf(table);
+            try (RegionLocator regionLocator = connection.getRegionLocator(tn)) {
+                int regions = regionLocator.getAllRegionLocations().size();
+                System.out.println("预取Region位置：" + tn + "，" + regions + "个Region");
+            } catch (IOException e) {
+                // 预热失败不影响使用
+                System.out.println("预取Region位置失败：" + tn + "，" + e);
+            }
+        }
+    }
+
+    // 关闭所有连接
+    public static synchronized void shutdown() {
+        for (Map.Entry<String, Connection> entry : CONNECTIONS.entrySet()) {
+            try {
+                HBaseUtils.closeConnection(entry.getValue());
+            } catch (RuntimeException e) {
+                System.out.println("关闭连接失败：" + entry.getKey() + "，" + e);
+            }
+        }
+        CONNECTIONS.clear();
+        for (Map.Entry<String, AsyncConnection> entry : ASYNC_CONNECTIONS.entrySet()) {
+            try {
+                HBaseUtils.closeAsyncConnection(entry.getValue());
+            } catch (RuntimeException e) {
+                System.out.println("关闭异步连接失败：" + entry.getKey() + "，" + e);
+            }
+        }
+        ASYNC_CONNECTIONS.clear();
+    }
+
+    // 重新加载配置，已经建立的连接不受影响
+    public static synchronized void reload() {
+        properties = null;
+    }
+
+    private static Properties getProperties() throws IOException {
+        Properties props = properties;
+        if (props == null) {
+            synchronized (ConnectionManager.class) {
+                if (properties == null) {
+                    properties = loadProperties();
+                }
+                props = properties;
+            }
+        }
+        return props;
+    }
+
+    private static Properties loadProperties() throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = ConnectionManager.class.getClassLoader().getResourceAsStream(CONFIG_RESOURCE)) {
+            if (in != null) {
+                props.load(in);
+            }
+        }
+        String path = System.getProperty(CONFIG_PROPERTY);
+        if (path != null && !path.trim().isEmpty()) {
+            try (InputStream in = new FileInputStream(path.trim())) {
+                props.load(in);
+            }
+        }
+        return props;
+    }
+}
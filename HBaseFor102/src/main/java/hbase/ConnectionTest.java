@@ -1,9 +1,12 @@
 package hbase;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.AsyncConnection;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * ClassName: ConnectionTest
  * Package: com.atguigu.hbase
@@ -15,17 +18,15 @@ import org.apache.hadoop.hbase.client.ConnectionFactory;
  */
 public class ConnectionTest {
     public static void testConnection() throws Exception {
-        Configuration conf = new Configuration();
-        // 添加Zookeeper地址，通过Zookeeper获得HBase Master地址
-        conf.set("hbase.zookeeper.quorum", "hadoop102,hadoop103,hadoop104");
+        // Zookeeper地址等配置见hbase-clusters.properties中的hadoop102集群
+        Configuration conf = ConnectionManager.getConfiguration("hadoop102");
         // 获取同步连接
         Connection connection = ConnectionFactory.createConnection(conf);
         System.out.println("同步连接：" + connection);
         connection.close();
         // 获取异步连接
-        /*
         CompletableFuture<AsyncConnection> asyncConnection = ConnectionFactory.createAsyncConnection(conf);
-        asyncConnection.get().close();;
-        */
+        System.out.println("异步连接：" + asyncConnection.get());
+        asyncConnection.get().close();
     }
 }
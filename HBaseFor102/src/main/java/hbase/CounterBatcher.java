@@ -0,0 +1,288 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ClassName: CounterBatcher
+ * Package: hbase
+ * Description: 计数器的客户端合并：同一个单元格的多次increment在客户端累加，定时或显式flush时
+ * 每行一个Increment，一次Table.batch发出；适合点击数、访问数等高频计数
+ * 写入失败的行（整批失败或单行失败）的增量合并回待发送的Map，下次flush时重试；
+ * Increment不是幂等的，服务端已经执行但响应丢失的行重试后会多计一次
+ * close之后不能再increment；close时仍有写不进去的增量会抛出IOException，可以用getPendingCells查看剩余数量
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 22:20
+ * @Version 1.0
+ */
+public class CounterBatcher implements Closeable {
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000L;
+    // close时刷写剩余增量的最多次数
+    private static final int CLOSE_FLUSH_ATTEMPTS = 3;
+
+    private static final class CellKey {
+        private final String rowKey;
+        private final String cf;
+        private final String cl;
+
+        CellKey(String rowKey, String cf, String cl) {
+            this.rowKey = rowKey;
+            this.cf = cf;
+            this.cl = cl;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CellKey)) {
+                return false;
+            }
+            CellKey other = (CellKey) o;
+            return rowKey.equals(other.rowKey) && cf.equals(other.cf) && cl.equals(other.cl);
+        }
+
+        @Override
+        public int hashCode() {
+            return (rowKey.hashCode() * 31 + cf.hashCode()) * 31 + cl.hashCode();
+        }
+    }
+
+    private final Connection connection;
+    private final TableName tableName;
+    // increment持读锁并发累加，flush持写锁换出整个Map，保证换出之后不会再有累加写进旧Map
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<CellKey, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    // 在写锁下置位，之后的increment不会再写进pending
+    private volatile boolean closed;
+
+    private CounterBatcher(Connection connection, TableName tableName, long flushIntervalMs) {
+        this.connection = connection;
+        this.tableName = tableName;
+        if (flushIntervalMs > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "counter-batcher-" + tableName.getNameAsString());
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(() -> {
+                try {
+                    flush();
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("计数器刷写失败：" + e);
+                }
+            }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    public static CounterBatcher create(Connection connection, String namespace, String tableName) {
+        return create(connection, namespace, tableName, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    // flushIntervalMs小于等于0表示不定时刷写，只在flush和close时发出
+    public static CounterBatcher create(Connection connection, String namespace, String tableName,
+                                        long flushIntervalMs) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        return new CounterBatcher(connection, TableName.valueOf(namespace, tableName), flushIntervalMs);
+    }
+
+    public void increment(String rowKey, String cf, String cl, long delta) {
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("计数器已关闭");
+            }
+            pending.computeIfAbsent(new CellKey(rowKey, cf, cl), k -> new LongAdder()).add(delta);
+        } finally {
+            lock.readLock().unlock();
+        }
+        received.incrementAndGet();
+    }
+
+    // 把累加的增量发出去，失败的行的增量放回pending等下次重试
+    public synchronized void flush() throws IOException {
+        Map<CellKey, LongAdder> drained;
+        lock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            drained = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // 同一行的多个列合并为一个Increment，同时按行记下各列的增量，失败时放回
+        Map<String, Increment> byRow = new HashMap<>();
+        Map<String, Map<CellKey, Long>> deltasByRow = new HashMap<>();
+        for (Map.Entry<CellKey, LongAdder> entry : drained.entrySet()) {
+            long delta = entry.getValue().sum();
+            if (delta == 0) {
+                continue;
+            }
+            CellKey key = entry.getKey();
+            Increment increment = byRow.get(key.rowKey);
+            if (increment == null) {
+                increment = new Increment(Bytes.toBytes(key.rowKey));
+                // 不需要返回新值，减少返回的数据量
+                increment.setReturnResults(false);
+                byRow.put(key.rowKey, increment);
+                deltasByRow.put(key.rowKey, new HashMap<>());
+            }
+            increment.addColumn(Bytes.toBytes(key.cf), Bytes.toBytes(key.cl), delta);
+            deltasByRow.get(key.rowKey).put(key, delta);
+        }
+        if (byRow.isEmpty()) {
+            return;
+        }
+        List<Increment> increments = new ArrayList<>(byRow.values());
+        Object[] results = new Object[increments.size()];
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_INCREMENT, tableName);
+        IOException error = null;
+        try {
+            TableCache.forConnection(connection).getTable(tableName).batch(increments, results);
+        } catch (RetriesExhaustedWithDetailsException e) {
+            // 部分失败，失败的行在results中是Throwable
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = new InterruptedIOException("计数器刷写被中断");
+        } catch (IOException e) {
+            // 整批失败时results中已成功的行仍是Result，其余的行放回
+            error = e;
+        }
+        long ok = 0;
+        long cells = 0;
+        List<byte[]> succeeded = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            Increment increment = increments.get(i);
+            String rowKey = Bytes.toString(increment.getRow());
+            if (results[i] instanceof Result) {
+                ok++;
+                cells += deltasByRow.get(rowKey).size();
+                succeeded.add(increment.getRow());
+            } else {
+                failures.incrementAndGet();
+                requeue(deltasByRow.get(rowKey));
+                if (error == null) {
+                    System.out.println("计数器写入失败，下次刷写时重试：" + rowKey + "：" + results[i]);
+                }
+            }
+            HBaseUtils.invalidateRow(connection, tableName, increment.getRow());
+        }
+        sent.addAndGet(ok);
+        // 计数列注册了二级索引时按新值补写索引
+        SecondaryIndex.indexCurrentValues(connection, tableName, succeeded);
+        if (ok == results.length && error == null) {
+            timer.success(ok, cells, 0);
+        } else {
+            timer.partial(ok, cells, 0);
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    // 失败的增量合并回pending，不受closed限制，close时的最后一次flush还能重试
+    private void requeue(Map<CellKey, Long> deltas) {
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<CellKey, Long> entry : deltas.entrySet()) {
+                pending.computeIfAbsent(entry.getKey(), k -> new LongAdder()).add(entry.getValue());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 调用increment的次数
+    public long getReceived() {
+        return received.get();
+    }
+
+    // 实际发出的Increment数，与getReceived之比即合并效果
+    public long getSent() {
+        return sent.get();
+    }
+
+    // 写入失败的行次数，同一行重试失败会重复计入
+    public long getFailures() {
+        return failures.get();
+    }
+
+    // 还没有写入成功的单元格数，包括等待重试的
+    public int getPendingCells() {
+        return pending.size();
+    }
+
+    // 停止定时刷写后再刷写剩余的增量，失败的增量最多重试CLOSE_FLUSH_ATTEMPTS次
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        IOException error = null;
+        for (int attempt = 0; attempt < CLOSE_FLUSH_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            try {
+                flush();
+                error = null;
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        if (!pending.isEmpty()) {
+            IOException e = new IOException("计数器关闭时仍有" + pending.size() + "个单元格的增量未写入");
+            if (error != null) {
+                e.addSuppressed(error);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package hbase;
+
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptorBuilder;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.regionserver.BloomType;
+
+/**
+ * ClassName: FamilyOptions
+ * Package: hbase
+ * Description: 列族调优参数：压缩、DataBlockEncoding、布隆过滤器、块大小、in-memory、TTL、最大版本数
+ * 未设置的参数保持ColumnFamilyDescriptorBuilder的默认值
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 19:10
+ * @Version 1.0
+ */
+public class FamilyOptions {
+
+    private Compression.Algorithm compression;
+    private DataBlockEncoding dataBlockEncoding;
+    private BloomType bloomType;
+    private Integer blockSize;
+    private Boolean inMemory;
+    private Integer ttlSeconds;
+    private Integer maxVersions;
+
+    public static FamilyOptions defaults() {
+        return new FamilyOptions();
+    }
+
+    // 复制一份，用于在默认参数的基础上单独调整某个列族
+    public FamilyOptions copy() {
+        FamilyOptions copy = new FamilyOptions();
+        copy.compression = compression;
+        copy.dataBlockEncoding = dataBlockEncoding;
+        copy.bloomType = bloomType;
+        copy.blockSize = blockSize;
+        copy.inMemory = inMemory;
+        copy.ttlSeconds = ttlSeconds;
+        copy.maxVersions = maxVersions;
+        return copy;
+    }
+
+    // 压缩算法，SNAPPY、LZ4需要RegionServer上有对应的本地库
+    public FamilyOptions compression(Compression.Algorithm compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    // 块内编码，FAST_DIFF、PREFIX等可以减少行键重复部分占用的空间
+    public FamilyOptions dataBlockEncoding(DataBlockEncoding dataBlockEncoding) {
+        this.dataBlockEncoding = dataBlockEncoding;
+        return this;
+    }
+
+    // ROW按行键过滤HFile，ROWCOL按行键+列过滤
+    public FamilyOptions bloomType(BloomType bloomType) {
+        this.bloomType = bloomType;
+        return this;
+    }
+
+    // HFile块大小（字节），随机读多时调小，顺序扫描多时调大
+    public FamilyOptions blockSize(int blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    // 在BlockCache中以in-memory优先级缓存
+    public FamilyOptions inMemory(boolean inMemory) {
+        this.inMemory = inMemory;
+        return this;
+    }
+
+    // 数据存活时间（秒）
+    public FamilyOptions ttlSeconds(int ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+        return this;
+    }
+
+    public FamilyOptions maxVersions(int maxVersions) {
+        this.maxVersions = maxVersions;
+        return this;
+    }
+
+    public Compression.Algorithm getCompression() {
+        return compression;
+    }
+
+    public DataBlockEncoding getDataBlockEncoding() {
+        return dataBlockEncoding;
+    }
+
+    public BloomType getBloomType() {
+        return bloomType;
+    }
+
+    public Integer getBlockSize() {
+        return blockSize;
+    }
+
+    public Boolean getInMemory() {
+        return inMemory;
+    }
+
+    public Integer getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public Integer getMaxVersions() {
+        return maxVersions;
+    }
+
+    // 把参数应用到列族描述上
+    public ColumnFamilyDescriptorBuilder apply(ColumnFamilyDescriptorBuilder builder) {
+        if (compression != null) {
+            builder.setCompressionType(compression);
+        }
+        if (dataBlockEncoding != null) {
+            builder.setDataBlockEncoding(dataBlockEncoding);
+        }
+        if (bloomType != null) {
+            builder.setBloomFilterType(bloomType);
+        }
+        if (blockSize != null) {
+            builder.setBlocksize(blockSize);
+        }
+        if (inMemory != null) {
+            builder.setInMemory(inMemory);
+        }
+        if (ttlSeconds != null) {
+            builder.setTimeToLive(ttlSeconds);
+        }
+        if (maxVersions != null) {
+            builder.setMaxVersions(maxVersions);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,141 @@
+package hbase;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ClassName: FilterQuery
+ * Package: hbase
+ * Description: 把Condition编译为Scan：顶层AND中的行键前缀/范围下推为startRow/stopRow，
+ * 其余条件编译为FilterList；select的列下推为列投影，过滤用到的列会自动加入投影
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 13:40
+ * @Version 1.0
+ */
+public class FilterQuery {
+
+    private Condition where;
+    private final ScanOptions options = ScanOptions.defaults();
+    private final List<String[]> selects = new ArrayList<>();
+
+    public static FilterQuery where(Condition condition) {
+        FilterQuery query = new FilterQuery();
+        query.where = condition;
+        return query;
+    }
+
+    public FilterQuery select(String cf, String cl) {
+        selects.add(new String[]{cf, cl});
+        return this;
+    }
+
+    // 扫描调优参数，见ScanOptions
+    public ScanOptions options() {
+        return options;
+    }
+
+    public Condition getWhere() {
+        return where;
+    }
+
+    public Scan toScan() {
+        Scan scan = new Scan();
+        options.apply(scan);
+        List<Condition> remaining = new ArrayList<>();
+        byte[] startRow = new byte[0];
+        byte[] stopRow = new byte[0];
+        // 顶层AND中的行键条件直接变成扫描范围
+        for (Condition conjunct : conjuncts(where)) {
+            if (conjunct instanceof Condition.RowPrefix) {
+                byte[] prefix = ((Condition.RowPrefix) conjunct).getPrefix();
+                startRow = maxStart(startRow, prefix);
+                stopRow = minStop(stopRow, Condition.prefixStopRow(prefix));
+            } else if (conjunct instanceof Condition.RowRange) {
+                Condition.RowRange range = (Condition.RowRange) conjunct;
+                startRow = maxStart(startRow, range.getStartRow());
+                stopRow = minStop(stopRow, range.getStopRow());
+            } else {
+                remaining.add(conjunct);
+            }
+        }
+        scan.withStartRow(startRow).withStopRow(stopRow);
+        if (remaining.size() == 1) {
+            scan.setFilter(remaining.get(0).toFilter());
+        } else if (remaining.size() > 1) {
+            scan.setFilter(Condition.and(remaining.toArray(new Condition[0])).toFilter());
+        }
+        // 列投影
+        if (!selects.isEmpty()) {
+            for (String[] select : selects) {
+                scan.addColumn(Bytes.toBytes(select[0]), Bytes.toBytes(select[1]));
+            }
+            // SingleColumnValueFilter需要读到被过滤的列
+            List<Condition.ColumnCondition> columns = new ArrayList<>();
+            for (Condition condition : remaining) {
+                condition.collectColumns(columns);
+            }
+            for (Condition.ColumnCondition column : columns) {
+                scan.addColumn(column.getFamily(), column.getQualifier());
+            }
+        }
+        return scan;
+    }
+
+    // 只需要行键时使用：没有列条件时每行只返回第一个Cell且不带值，有列条件时只读取条件用到的列
+    public Scan toKeyOnlyScan() {
+        Scan scan = toScan();
+        List<Condition.ColumnCondition> columns = new ArrayList<>();
+        if (where != null) {
+            where.collectColumns(columns);
+        }
+        if (columns.isEmpty()) {
+            Filter keyOnly = new FilterList(FilterList.Operator.MUST_PASS_ALL,
+                    new FirstKeyOnlyFilter(), new KeyOnlyFilter());
+            scan.setFilter(scan.getFilter() == null ? keyOnly
+                    : new FilterList(FilterList.Operator.MUST_PASS_ALL, scan.getFilter(), keyOnly));
+        } else {
+            for (Condition.ColumnCondition column : columns) {
+                scan.addColumn(column.getFamily(), column.getQualifier());
+            }
+        }
+        return scan;
+    }
+
+    static List<Condition> conjuncts(Condition condition) {
+        if (condition == null) {
+            return Collections.emptyList();
+        }
+        if (condition instanceof Condition.And) {
+            List<Condition> result = new ArrayList<>();
+            for (Condition child : ((Condition.And) condition).getChildren()) {
+                result.addAll(conjuncts(child));
+            }
+            return result;
+        }
+        return Collections.singletonList(condition);
+    }
+
+    private static byte[] maxStart(byte[] a, byte[] b) {
+        return Bytes.compareTo(a, b) >= 0 ? a : b;
+    }
+
+    // 空数组表示不限
+    private static byte[] minStop(byte[] a, byte[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        return Bytes.compareTo(a, b) <= 0 ? a : b;
+    }
+}
@@ -1,6 +1,5 @@
 package hbase;
 
-import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.CompareOperator;
@@ -11,7 +10,17 @@ import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
 import org.apache.hadoop.hbase.util.Bytes;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * ClassName: HBaseUtils
@@ -25,32 +34,54 @@ import java.util.List;
 public class HBaseUtils {
 
 
-    // 获取连接
-    private static Connection connection;
+    // 打印到控制台，格式 row:family:qualifier:value
+    private static final RowSink PRINT_SINK = RowSinks.printing(System.out);
 
-    static {
-        Configuration conf = new Configuration();
-        // 添加Zookeeper地址，通过Zookeeper获得HBase Master地址
-        conf.set("hbase.zookeeper.quorum", "localhost:2181,localhost:2182,localhost:2183");
-        // 获取同步连接
+    // 获取连接的方法，连接由ConnectionManager按hbase-clusters.properties懒加载
+    public static Connection getConnection() {
         try {
-            connection = ConnectionFactory.createConnection(conf);
+            return ConnectionManager.getConnection();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        // 获取异步连接
-        /*
-        CompletableFuture<AsyncConnection> asyncConnection = ConnectionFactory.createAsyncConnection(conf);
-        asyncConnection.get().close();;
-        */
     }
-    // 获取连接的方法
-    public static Connection getConnection() {
-        return connection;
+
+    // 获取指定集群的连接
+    public static Connection getConnection(String cluster) {
+        try {
+            return ConnectionManager.getConnection(cluster);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // 获取异步连接的方法
+    public static AsyncConnection getAsyncConnection() {
+        try {
+            return ConnectionManager.getAsyncConnection();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // 关闭异步连接的方法
+    public static void closeAsyncConnection(AsyncConnection asyncConnection) {
+        if (asyncConnection != null && !asyncConnection.isClosed()) {
+            try {
+                asyncConnection.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     // 关闭连接的方法
     public static void closeConnection(Connection connection) {
+        // 先释放缓存的Table和Admin，以及行缓存、注册的二级索引和写入限流
+        TableCache.release(connection);
+        RowCache.release(connection);
+        SecondaryIndex.release(connection);
+        WriteThrottle.release(connection);
         if (connection != null && !connection.isClosed()) {
             try {
                 connection.close();
@@ -63,6 +94,12 @@ public class HBaseUtils {
     // TODO: DDL
     // 创建表 create 'namespace:table','cf...'
     public static void createTable(Connection connection, String namespace, String table, String... cfs) throws Exception {
+        createTable(connection, namespace, table, TableOptions.defaults(), cfs);
+    }
+
+    // 创建表，按TableOptions预分区并设置列族参数，如TableOptions.writeHeavy().hexSplits(16)
+    public static void createTable(Connection connection, String namespace, String table, TableOptions options,
+                                   String... cfs) throws Exception {
         if (connection == null) {
             System.out.println("连接对象不能为空");
             return;
@@ -76,10 +113,10 @@ public class HBaseUtils {
             return;
         }
         // 判断表是否存在
-        // 基于connection获取Admin对象
-        Admin admin = connection.getAdmin();
+        // 基于connection获取Admin对象，Admin和表是否存在都有缓存
+        TableCache tableCache = TableCache.forConnection(connection);
         TableName tn = TableName.valueOf(namespace, table);
-        boolean tableExists = admin.tableExists(tn);
+        boolean tableExists = tableCache.tableExists(tn);
         if (tableExists) {
             System.out.println((namespace == null ? "default" : namespace) + ":" + table + "已经存在");
             return;
@@ -87,21 +124,31 @@ public class HBaseUtils {
         // 建表
         // 建造者模式获得表描述
         TableDescriptorBuilder tableDescriptorBuilder = TableDescriptorBuilder.newBuilder(tn);
-        // 设置列族信息
-        for (String cf : cfs) {
-            // 建造者模式获得列族描述
-            ColumnFamilyDescriptorBuilder columnFamilyDescriptorBuilder =
-                    ColumnFamilyDescriptorBuilder.newBuilder(Bytes.toBytes(cf));
-            ColumnFamilyDescriptor columnFamilyDescriptor =
-                    columnFamilyDescriptorBuilder.build();
-            tableDescriptorBuilder.setColumnFamily(columnFamilyDescriptor);
+        // 设置列族信息，建造者模式获得列族描述
+        if (options == null) {
+            options = TableOptions.defaults();
         }
+        options.apply(tableDescriptorBuilder, cfs);
         TableDescriptor tableDescriptor = tableDescriptorBuilder.build();
-        // 根据表描述创建表
-        admin.createTable(tableDescriptor);
+        byte[][] splitKeys = options.getSplitKeys();
+        // 根据表描述创建表，有切分点时预分区
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_CREATE_TABLE, tn);
+        try {
+            tableCache.withAdmin(admin -> {
+                if (splitKeys == null || splitKeys.length == 0) {
+                    admin.createTable(tableDescriptor);
+                } else {
+                    admin.createTable(tableDescriptor, splitKeys);
+                }
+                return null;
+            });
+            timer.success(0, 0, 0);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+        tableCache.invalidate(tn);
         System.out.println((namespace == null ? "default" : namespace) + ":" + table + "创建成功");
-
-        admin.close();
     }
 
 
@@ -129,16 +176,46 @@ public class HBaseUtils {
             System.out.println("值不能为空");
             return;
         }
-        // 获取Table对象
         TableName tn = TableName.valueOf(namespace, tableName);
-        Table table = connection.getTable(tn);
         // Put对象
         Put put = new Put(Bytes.toBytes(rowKey));
         // 添加列
         put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(cl), Bytes.toBytes(v));
         // put操作
-        table.put(put);
-        table.close();
+        put(connection, tn, put);
+    }
+
+    // 写入一个Put，维护二级索引、写入限流、指标和行缓存，TypedTable也经过这里
+    static void put(Connection connection, TableName tn, Put put) throws IOException {
+        // 获取Table对象
+        Table table = TableCache.forConnection(connection).getTable(tn);
+        // 注册了二级索引时，先读旧值再写索引
+        SecondaryIndex.Maintenance indexes = SecondaryIndex.prepare(connection, tn, put);
+        if (indexes != null) {
+            indexes.beforeWrite();
+        }
+        // 开启了写入限流时，按表限速并占用RegionServer的并发
+        WriteThrottle.Permit permit = WriteThrottle.acquire(connection, tn, put.getRow(), 1);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_PUT, tn).region(connection, tn, put.getRow());
+        try {
+            table.put(put);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            permit.release(e);
+            throw e;
+        }
+        // 延迟样本只包含数据表的写入，索引表的RPC不计入这台RegionServer
+        permit.release(null);
+        try {
+            invalidateRow(connection, tn, put.getRow());
+            if (indexes != null) {
+                indexes.afterWrite();
+            }
+            timer.success(1, put.size(), put.heapSize());
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
     }
     /*
     hbase:007:0> scan 'stu' ,{RAW=>true,VERSIONS=>5}
@@ -156,7 +233,6 @@ public class HBaseUtils {
         // 判空，略
         // 获取Table对象
         TableName tn = TableName.valueOf(namespace, tableName);
-        Table table = connection.getTable(tn);
 
         Delete delete = new Delete(Bytes.toBytes(rowKey));
         // 删除指定版本的数据，底层Delete
@@ -171,68 +247,452 @@ public class HBaseUtils {
         // 指定列族删除
         delete.addFamily(Bytes.toBytes(cf));
 
+        delete(connection, tn, delete);
+    }
 
-        table.delete(delete);
-        table.close();
+    // 删除，维护二级索引、写入限流、指标和行缓存
+    static void delete(Connection connection, TableName tn, Delete delete) throws IOException {
+        Table table = TableCache.forConnection(connection).getTable(tn);
+        SecondaryIndex.Maintenance indexes = SecondaryIndex.prepare(connection, tn, delete);
+        WriteThrottle.Permit permit = WriteThrottle.acquire(connection, tn, delete.getRow(), 1);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_DELETE, tn).region(connection, tn, delete.getRow());
+        try {
+            table.delete(delete);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            permit.release(e);
+            throw e;
+        }
+        permit.release(null);
+        try {
+            invalidateRow(connection, tn, delete.getRow());
+            if (indexes != null) {
+                indexes.afterWrite();
+            }
+            timer.success(1, delete.size(), 0);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+    }
 
+
+    // DML 原子计数器，返回增加后的值；高频计数见CounterBatcher
+    public static long incrementData(Connection connection, String namespace, String tableName, String rowKey,
+                                     String cf, String cl, long amount) throws IOException {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        TableName tn = TableName.valueOf(namespace, tableName);
+        Table table = TableCache.forConnection(connection).getTable(tn);
+        byte[] row = Bytes.toBytes(rowKey);
+        // 计数列注册了二级索引时，写入后按新值更新索引
+        SecondaryIndex.Maintenance indexes = SecondaryIndex.prepare(connection, tn,
+                new Increment(row).addColumn(Bytes.toBytes(cf), Bytes.toBytes(cl), amount));
+        WriteThrottle.Permit permit = WriteThrottle.acquire(connection, tn, row, 1);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_INCREMENT, tn).region(connection, tn, row);
+        long value;
+        try {
+            value = table.incrementColumnValue(row, Bytes.toBytes(cf), Bytes.toBytes(cl), amount);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            permit.release(e);
+            throw e;
+        }
+        permit.release(null);
+        try {
+            invalidateRow(connection, tn, row);
+            if (indexes != null) {
+                indexes.afterWrite();
+            }
+            timer.success(1, 1, Bytes.SIZEOF_LONG);
+            return value;
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
     }
 
 
+    // DML 按行键范围批量删除，type对应deleteData中的几种删除方式，cl只有按列删除时需要
+    // 更多条件（过滤条件、按时间清理、限速）见BulkDeleter
+    public static BulkDeleter.Report deleteRange(Connection connection, String namespace, String tableName,
+                                                 String startRow, String stopRow,
+                                                 BulkDeleter.DeleteType type, String cf, String cl) throws IOException {
+        return BulkDeleter.create(connection, namespace, tableName)
+                .range(startRow, stopRow)
+                .deleteType(type, cf, cl)
+                .run();
+    }
+
     // DML get
     public static void getData(Connection connection, String namespace, String tableName, String rowKey) throws IOException {
+        getData(connection, namespace, tableName, rowKey, PRINT_SINK);
+    }
+
+    // DML get，结果交给RowSink，不复制Cell
+    public static void getData(Connection connection, String namespace, String tableName, String rowKey,
+                               RowSink sink) throws IOException {
         // 判空
-        // 获取Table对象
         TableName tn = TableName.valueOf(namespace, tableName);
-        Table table = connection.getTable(tn);
-
-        Get get = new Get(Bytes.toBytes(rowKey));
-
-        Result result = table.get(get);
+        Result result = get(connection, tn, new Get(Bytes.toBytes(rowKey)));
         // 提取所有Cell
         // 获取Cell集合
-        List<Cell> cellList = result.listCells();
+        // List<Cell> cellList = result.listCells();
         // 获取Cell数组
         // Cell[] cellArray = result.rawCells();
-        for (Cell cell : cellList) {
-            System.out.println(Bytes.toString(CellUtil.cloneRow(cell)) + ":"
-                    + Bytes.toString(CellUtil.cloneFamily(cell)) + ":"
-                    + Bytes.toString(CellUtil.cloneQualifier(cell)) + ":"
-                    + Bytes.toString(CellUtil.cloneValue(cell)));
+        RowSink.accept(result, sink);
+    }
+
+    // 读取一行，开启了行缓存且get读取整行最新版本时先查缓存
+    static Result get(Connection connection, TableName tn, Get get) throws IOException {
+        // 获取Table对象
+        Table table = TableCache.forConnection(connection).getTable(tn);
+
+        // 开启了行缓存时先查缓存
+        RowCache rowCache = get.hasFamilies() || get.getMaxVersions() > 1 ? null : RowCache.forConnection(connection);
+        long generation = 0;
+        if (rowCache != null) {
+            ClientMetrics.Timer cacheTimer = ClientMetrics.get().start(ClientMetrics.OP_GET_CACHED, tn);
+            Result cached = rowCache.get(tn, get.getRow());
+            if (cached != null) {
+                cacheTimer.success(cached.isEmpty() ? 0 : 1, cached.size(), Result.getTotalSizeOfCells(cached));
+                return cached;
+            }
+            generation = rowCache.generation(tn, get.getRow());
+        }
+
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_GET, tn).region(connection, tn, get.getRow());
+        Result result;
+        try {
+            result = table.get(get);
+            if (rowCache != null) {
+                rowCache.put(tn, get.getRow(), result, generation);
+            }
+            timer.success(result.isEmpty() ? 0 : 1, result.size(), Result.getTotalSizeOfCells(result));
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+        return result;
+    }
+
+    // 写入或删除之后使行缓存中的对应行失效
+    static void invalidateRow(Connection connection, TableName tn, byte[] row) {
+        RowCache rowCache = RowCache.forConnection(connection);
+        if (rowCache != null) {
+            rowCache.invalidate(tn, row);
+        }
+    }
+
+    // DML 多版本get，如 get 'stu','1004',{VERSIONS=>5} 对应 VersionOptions.versions(5)
+    // 版本按batch个Cell分段读取，返回Cell数
+    public static long getVersions(Connection connection, String namespace, String tableName, String rowKey,
+                                   VersionOptions versions, RowSink sink) throws IOException {
+        TableName tn = TableName.valueOf(namespace, tableName);
+        Table table = TableCache.forConnection(connection).getTable(tn);
+        byte[] row = Bytes.toBytes(rowKey);
+        Scan scan = new Scan().withStartRow(row).withStopRow(row, true);
+        versions.apply(scan);
+        return scanVersionsInto(table, scan, sink);
+    }
+
+    // 批量get时每个分组的最大行数
+    public static final int MULTI_GET_CHUNK_SIZE = 100;
+
+    // DML 批量get，不打印结果
+    public static Map<String, RowResult> getDataBatch(Connection connection, String namespace, String tableName,
+                                                      Collection<String> rowKeys) throws IOException {
+        return getDataBatch(connection, namespace, tableName, rowKeys, null, null);
+    }
+
+    /**
+     * 批量get：按行键所在Region分组，每组再按MULTI_GET_CHUNK_SIZE切分，每个分组一次Table.batch
+     * 单个行键失败不影响其他行键，失败原因记录在RowResult中
+     *
+     * @param cf       只查询该列族，为null时查询整行
+     * @param columns  只查询cf下的这些列，为空时查询整个列族
+     * @param executor 分组并行执行的线程池，为null时在当前线程依次执行
+     * @return 行键到结果的映射，顺序与传入的行键一致
+     */
+    public static Map<String, RowResult> getDataBatch(Connection connection, String namespace, String tableName,
+                                                      Collection<String> rowKeys, String cf, ExecutorService executor,
+                                                      String... columns) throws IOException {
+        Map<String, RowResult> resultMap = new LinkedHashMap<>();
+        if (rowKeys == null || rowKeys.isEmpty()) {
+            return resultMap;
+        }
+        final TableName tn = TableName.valueOf(namespace, tableName);
+        // 按Region分组，Region位置会被客户端缓存
+        Map<String, List<String>> regionGroups = new LinkedHashMap<>();
+        try (RegionLocator regionLocator = connection.getRegionLocator(tn)) {
+            for (String rowKey : new LinkedHashSet<>(rowKeys)) {
+                resultMap.put(rowKey, null);
+                String region = regionLocator.getRegionLocation(Bytes.toBytes(rowKey)).getRegion().getEncodedName();
+                List<String> group = regionGroups.get(region);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    regionGroups.put(region, group);
+                }
+                group.add(rowKey);
+            }
+        }
+        // 列族和列的投影
+        final byte[] family = cf == null ? null : Bytes.toBytes(cf);
+        final byte[][] qualifiers = new byte[columns == null ? 0 : columns.length][];
+        for (int i = 0; i < qualifiers.length; i++) {
+            qualifiers[i] = Bytes.toBytes(columns[i]);
+        }
+
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_MULTI_GET, tn);
+        List<Callable<List<RowResult>>> chunks = new ArrayList<>();
+        for (List<String> group : regionGroups.values()) {
+            for (int from = 0; from < group.size(); from += MULTI_GET_CHUNK_SIZE) {
+                final List<String> chunk = group.subList(from, Math.min(from + MULTI_GET_CHUNK_SIZE, group.size()));
+                chunks.add(() -> getChunk(connection, tn, chunk, family, qualifiers));
+            }
+        }
+
+        if (executor == null) {
+            for (Callable<List<RowResult>> chunk : chunks) {
+                putAll(resultMap, callChunk(chunk));
+            }
+        } else {
+            List<Future<List<RowResult>>> futures = new ArrayList<>();
+            for (Callable<List<RowResult>> chunk : chunks) {
+                futures.add(executor.submit(chunk));
+            }
+            for (Future<List<RowResult>> future : futures) {
+                try {
+                    putAll(resultMap, future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("批量get被中断");
+                } catch (ExecutionException e) {
+                    timer.failure(e.getCause());
+                    throw new IOException(e.getCause());
+                }
+            }
+        }
+        long rows = 0;
+        long cells = 0;
+        long bytes = 0;
+        boolean failed = false;
+        for (RowResult rowResult : resultMap.values()) {
+            if (rowResult == null || !rowResult.isSuccess()) {
+                failed = true;
+            } else if (!rowResult.isEmpty()) {
+                rows++;
+                for (Cell cell : rowResult.getCells()) {
+                    cells++;
+                    bytes += cell.getSerializedSize();
+                }
+            }
+        }
+        // 有行失败时整次批量get记为一次错误，成功的行照常计入
+        if (failed) {
+            timer.partial(rows, cells, bytes);
+        } else {
+            timer.success(rows, cells, bytes);
         }
-        table.close();
+        return resultMap;
+    }
+
+    private static List<RowResult> callChunk(Callable<List<RowResult>> chunk) throws IOException {
+        try {
+            return chunk.call();
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void putAll(Map<String, RowResult> resultMap, List<RowResult> results) {
+        for (RowResult result : results) {
+            resultMap.put(result.getRowKey(), result);
+        }
+    }
+
+    // 一个分组一次batch，results中对应位置为Result或Throwable
+    private static List<RowResult> getChunk(Connection connection, TableName tn, List<String> rowKeys,
+                                            byte[] family, byte[][] qualifiers) {
+        List<Get> gets = new ArrayList<>(rowKeys.size());
+        for (String rowKey : rowKeys) {
+            Get get = new Get(Bytes.toBytes(rowKey));
+            if (family != null) {
+                if (qualifiers.length == 0) {
+                    get.addFamily(family);
+                } else {
+                    for (byte[] qualifier : qualifiers) {
+                        get.addColumn(family, qualifier);
+                    }
+                }
+            }
+            gets.add(get);
+        }
+        Object[] results = new Object[gets.size()];
+        Throwable chunkError = null;
+        try {
+            TableCache.forConnection(connection).getTable(tn).batch(gets, results);
+        } catch (RetriesExhaustedWithDetailsException e) {
+            // 部分失败，失败的行在results中是Throwable
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chunkError = e;
+        } catch (IOException e) {
+            chunkError = e;
+        }
+        List<RowResult> rowResults = new ArrayList<>(rowKeys.size());
+        for (int i = 0; i < rowKeys.size(); i++) {
+            Object result = results[i];
+            if (result instanceof Result) {
+                rowResults.add(RowResult.success(rowKeys.get(i), ((Result) result).listCells()));
+            } else if (result instanceof Throwable) {
+                rowResults.add(RowResult.failure(rowKeys.get(i), (Throwable) result));
+            } else {
+                rowResults.add(RowResult.failure(rowKeys.get(i),
+                        chunkError != null ? chunkError : new IOException("没有返回结果")));
+            }
+        }
+        return rowResults;
     }
 
     // DML scan
     public static void scanData(Connection connection, String namespace, String tableName, String startRow, String stopRow) throws IOException {
+        scanData(connection, namespace, tableName, startRow, stopRow, ScanOptions.defaults());
+    }
+
+    // DML scan，使用ScanOptions调优，如ScanOptions.bulkExport()
+    public static void scanData(Connection connection, String namespace, String tableName, String startRow, String stopRow,
+                                ScanOptions options) throws IOException {
+        scanData(connection, namespace, tableName, startRow, stopRow, options, PRINT_SINK);
+    }
+
+    // DML scan，结果交给RowSink，如RowSinks.counting()、RowSinks.csv(out)
+    public static void scanData(Connection connection, String namespace, String tableName, String startRow, String stopRow,
+                                ScanOptions options, RowSink sink) throws IOException {
         // 判空
         // 获取Table对象
         TableName tn = TableName.valueOf(namespace, tableName);
-        Table table = connection.getTable(tn);
+        Table table = TableCache.forConnection(connection).getTable(tn);
         Scan scan = new Scan();
         scan.withStartRow(Bytes.toBytes(startRow)).withStopRow(Bytes.toBytes(stopRow));
-        ResultScanner resultScanner = table.getScanner(scan);
-
-        for (Result result : resultScanner) {
-            List<Cell> cellList = result.listCells();
-            for (Cell cell : cellList) {
-                System.out.println(Bytes.toString(CellUtil.cloneRow(cell)) + ":"
-                        + Bytes.toString(CellUtil.cloneFamily(cell)) + ":"
-                        + Bytes.toString(CellUtil.cloneQualifier(cell)) + ":"
-                        + Bytes.toString(CellUtil.cloneValue(cell)));
-            }
-            System.out.println("--------------------");
+        if (options != null) {
+            options.apply(scan);
         }
+        scanInto(table, scan, sink);
+    }
+    // DML 多版本scan，如 scan 'stu',{RAW=>true,VERSIONS=>5} 对应 VersionOptions.history()
+    // 指定时间范围时RegionServer跳过时间范围之外的HFile，返回Cell数
+    public static long scanVersions(Connection connection, String namespace, String tableName, String startRow,
+                                    String stopRow, VersionOptions versions, RowSink sink) throws IOException {
+        TableName tn = TableName.valueOf(namespace, tableName);
+        Table table = TableCache.forConnection(connection).getTable(tn);
+        Scan scan = new Scan();
+        scan.withStartRow(Bytes.toBytes(startRow)).withStopRow(Bytes.toBytes(stopRow));
+        versions.apply(scan);
+        return scanVersionsInto(table, scan, sink);
+    }
 
-        table.close();
+    // 一行可能分成多个Result返回，同一行只调用一次startRow和endRow
+    private static long scanVersionsInto(Table table, Scan scan, RowSink sink) throws IOException {
+        scan.setScanMetricsEnabled(true);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_SCAN, table.getName());
+        long rows = 0;
+        long cells = 0;
+        Cell currentRow = null;
+        try (ResultScanner resultScanner = table.getScanner(scan)) {
+            for (Result result : resultScanner) {
+                Cell[] rawCells = result.rawCells();
+                if (rawCells == null || rawCells.length == 0) {
+                    continue;
+                }
+                Cell first = rawCells[0];
+                if (currentRow == null || !CellUtil.matchingRows(first, currentRow)) {
+                    if (currentRow != null) {
+                        sink.endRow();
+                    }
+                    sink.startRow(first.getRowArray(), first.getRowOffset(), first.getRowLength());
+                    currentRow = first;
+                    rows++;
+                }
+                for (Cell cell : rawCells) {
+                    sink.cell(cell);
+                }
+                cells += rawCells.length;
+            }
+            if (currentRow != null) {
+                sink.endRow();
+            }
+            timer.success(resultScanner.getScanMetrics(), rows, cells);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+        return cells;
     }
+
     // DML: Scan with filter，会导致全表扫描；HBase推荐用行键
     public static void scanDataWithFilter(Connection connection, String namespace, String tableName) throws IOException {
+        scanDataWithFilter(connection, namespace, tableName, ScanOptions.defaults());
+    }
+
+    // 列投影时需要包含过滤用到的f1:name和f1:age，否则setFilterIfMissing会跳过所有行
+    public static void scanDataWithFilter(Connection connection, String namespace, String tableName,
+                                          ScanOptions options) throws IOException {
         // 判空
         // 获取Table对象
         TableName tn = TableName.valueOf(namespace, tableName);
-        Table table = connection.getTable(tn);
+        Table table = TableCache.forConnection(connection).getTable(tn);
         Scan scan = new Scan();
+        if (options != null) {
+            options.apply(scan);
+        }
+        scan.setFilter(nameAndAgeFilter());
+
+        scanInto(table, scan, PRINT_SINK);
+    }
 
+    // 执行Scan并记录指标，ScanMetrics中的重试次数和返回字节数一并记录
+    private static void scanInto(Table table, Scan scan, RowSink sink) throws IOException {
+        scan.setScanMetricsEnabled(true);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_SCAN, table.getName());
+        long rows = 0;
+        long cells = 0;
+        try (ResultScanner resultScanner = table.getScanner(scan)) {
+            for (Result result : resultScanner) {
+                RowSink.accept(result, sink);
+                rows++;
+                cells += result.size();
+            }
+            timer.success(resultScanner.getScanMetrics(), rows, cells);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+    }
+
+    // 按Region并行执行带过滤的全表扫描，结果仍按行键顺序打印
+    public static void scanDataWithFilter(Connection connection, String namespace, String tableName,
+                                          ScanOptions options, ParallelScanner parallelScanner) throws IOException {
+        Scan scan = new Scan();
+        if (options != null) {
+            options.apply(scan);
+        }
+        scan.setFilter(nameAndAgeFilter());
+        parallelScanner.scanOrdered(namespace, tableName, scan, HBaseUtils::printResult);
+    }
+
+    // 按条件树过滤，数值列按Bytes.toBytes(int/long)的编码比较
+    // 行键条件转换为多段扫描范围，只扫描相交的Region，返回跳过的Region数和行数
+    public static RowKeyPlanner.Report scanDataWithFilter(Connection connection, String namespace, String tableName,
+                                                          FilterQuery query, RowSink sink) throws IOException {
+        return RowKeyPlanner.scan(connection, namespace, tableName, query, sink);
+    }
+
+    private static FilterList nameAndAgeFilter() {
         // 过滤
         // name = 'Jerry'
         SingleColumnValueFilter nameFilter = new SingleColumnValueFilter
@@ -251,39 +711,159 @@ public class HBaseUtils {
 
 
         // 多个过滤条件的封装
-        FilterList filterList = new FilterList(FilterList.Operator.MUST_PASS_ALL, nameFilter, ageFilter);
-        scan.setFilter(filterList);
-
-
-        ResultScanner resultScanner = table.getScanner(scan);
-
-        for (Result result : resultScanner) {
-            List<Cell> cellList = result.listCells();
-            for (Cell cell : cellList) {
-                System.out.println(Bytes.toString(CellUtil.cloneRow(cell)) + ":"
-                        + Bytes.toString(CellUtil.cloneFamily(cell)) + ":"
-                        + Bytes.toString(CellUtil.cloneQualifier(cell)) + ":"
-                        + Bytes.toString(CellUtil.cloneValue(cell)));
-            }
-            System.out.println("--------------------");
-        }
+        return new FilterList(FilterList.Operator.MUST_PASS_ALL, nameFilter, ageFilter);
+    }
 
-        table.close();
+    // 打印一行的所有Cell
+    private static void printResult(Result result) throws IOException {
+        RowSink.accept(result, PRINT_SINK);
     }
+
     public static void main(String[] args) throws Exception {
         Connection connection = getConnection();
         // DDL 创建表
         // createTable(connection,null, "t1", "f1", "f2", "f3");
+        // 预分区16个Region，写多读少的列族参数
+        // createTable(connection, null, "t2", TableOptions.writeHeavy().hexSplits(16), "f1");
+        // TableOptions options = TableOptions.readHeavy().splitKeys("1000", "2000", "3000");
+        // options.family("f2").ttlSeconds(7 * 24 * 3600).maxVersions(3);
+        // createTable(connection, null, "t3", options, "f1", "f2");
         // DML put
         // putData(connection, null, "stu", "1003", "f1", "name", "Tom");
+        // DML 批量put
+        /*
+        try (BatchWriter writer = BatchWriter.create(connection, null, "stu")) {
+            writer.put("1005", "f1", "name", "Lucy");
+            writer.flush();
+        }
+        */
+        // 批量导入，输入为按行键排序的CSV：行键,列族,列,值
+        /*
+        try (InputStream in = new FileInputStream("stu.csv")) {
+            System.out.println(BulkLoader.create(connection, null, "stu").load(in));
+        }
+        */
+        // 行键加盐，单调递增的行键分散到16个预分区的Region
+        /*
+        KeyedTable salted = KeyedTable.create(connection, null, "stu_salted", KeyLayout.salted(16));
+        salted.createTable(TableOptions.writeHeavy(), "f1");
+        salted.put("1001", "f1", "name", "Tom");
+        salted.get("1001", RowSinks.printing(System.out));
+        salted.scan("1000", "2000", ScanOptions.defaults(), RowSinks.printing(System.out));
+        */
+        // 二级索引：按f1:name查询不再全表扫描
+        /*
+        SecondaryIndex byName = SecondaryIndex.create(connection, null, "stu", "f1", "name");
+        byName.createIndexTable(TableOptions.readHeavy());
+        byName.register();
+        System.out.println(byName.rebuild());
+        Map<String, RowResult> jerry = byName.lookup("Jerry");
+        System.out.println(byName.check(true));
+        */
         // DML get
         // getData(connection,null,"stu","1004");
+        // 热点行走客户端行缓存，putData/deleteData会使对应行失效
+        // RowCache rowCache = RowCache.enable(connection, 64L * 1024 * 1024, 30000);
+        // getData(connection,null,"stu","1004");
+        // System.out.println(rowCache);
+        // 低延迟读：3副本的表，超过p95还没返回时向副本发备份请求，每次最多等50ms
+        /*
+        createTable(connection, null, "hot", TableOptions.readHeavy().regionReplication(3), "f1");
+        try (HedgedReader reader = HedgedReader.create(connection, null, "hot").budget(50)) {
+            HedgedReader.TaggedResult tagged = reader.get("1004", RowSinks.printing(System.out));
+            System.out.println(tagged.isStale() ? "副本数据，可能不是最新" : "最新数据");
+        }
+        */
+        // DML 多版本get/scan，时间范围读取
+        // getVersions(connection, null, "stu", "1004", VersionOptions.versions(5), RowSinks.history(System.out));
+        // scanVersions(connection, null, "stu", "0", "1111", VersionOptions.history(), RowSinks.history(System.out));
+        // scanVersions(connection, null, "stu", "0", "1111", VersionOptions.asOf(1711612000000L), RowSinks.printing(System.out));
+        // DML 批量get
+        // Map<String, RowResult> rows = getDataBatch(connection, null, "stu", Arrays.asList("1001", "1003", "1004"));
         // DML scan
         // scanData(connection,null, "stu","0","1111");
+        // scanData(connection,null, "stu","0","1111", ScanOptions.bulkExport().addFamily("f1"));
+        // scanData(connection,null, "stu","0","1111", ScanOptions.bulkExport(), RowSinks.counting());
+        // 按Region并行导出为CSV文件，重新运行时跳过已经完成的文件
+        // System.out.println(TableExporter.create(connection, null, "stu").outputDir("export/stu").gzip(true).run());
         // DML scan with filter
         // scanDataWithFilter(connection, null, "stu");
+        /*
+        // putData写入的age是十进制字符串，只能按字符串比较；LONG/INT比较只适用于Bytes.toBytes(long/int)写入的值
+        FilterQuery query = FilterQuery.where(Condition.and(
+                Condition.eq("f1", "name", "Jerry"),
+                Condition.eq("f1", "age", "12")))
+                .select("f1", "name");
+        scanDataWithFilter(connection, null, "stu", query, RowSinks.printing(System.out));
+        RowKeyPlanner.Report report = scanDataWithFilter(connection, null, "stu",
+                FilterQuery.where(Condition.or(Condition.rowPrefix("100"), Condition.rowIn("2001", "3001"))),
+                RowSinks.counting());
+        System.out.println(report);
+        */
+        /*
+        try (ParallelScanner parallelScanner = new ParallelScanner(connection, 8)) {
+            scanDataWithFilter(connection, null, "stu", ScanOptions.bulkExport(), parallelScanner);
+        }
+        */
+        // DML 计数器
+        // incrementData(connection, null, "stu", "1004", "f1", "visits", 1);
+        /*
+        try (CounterBatcher counters = CounterBatcher.create(connection, null, "stu")) {
+            counters.increment("1004", "f1", "visits", 1);
+        }
+        */
+        // 聚合：行数、数值列的count/sum/min/max，按Region并行扫描，只读行键或需要的列
+        /*
+        Aggregator aggregator = Aggregator.create(connection, null, "stu").range("1000", "2000");
+        System.out.println(aggregator.rowCount());
+        System.out.println(aggregator.stats("f1", "visits", Condition.ValueType.LONG));
+        */
         // DML delete
         // deleteData(connection,null,"stu","1004","f1","name");
+        // DML 批量删除
+        // deleteRange(connection, null, "stu", "1000", "2000", BulkDeleter.DeleteType.FAMILY, "f1", null);
+        // 清理7天前的数据，每秒最多删除1万行
+        /*
+        BulkDeleter.Report report = BulkDeleter.create(connection, null, "stu")
+                .olderThan(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(7))
+                .parallelism(8)
+                .rateLimit(10000)
+                .run();
+        System.out.println(report);
+        */
+        // 写入限流：stu每秒最多5万行，每个RegionServer的并发在2到32之间按延迟和过载异常自适应
+        /*
+        WriteThrottle throttle = WriteThrottle.enable(connection)
+                .rateLimit(null, "stu", 50000)
+                .concurrency(8, 2, 32)
+                .latencyTarget(50);
+        putData(connection, null, "stu", "1003", "f1", "name", "Tom");
+        System.out.println(throttle);
+        */
+        // 按POJO读写：Student有字段String school、long id、String name、int age，行键为(school, id)，其余字段打包到f1:d
+        /*
+        RowSchema<Student> schema = RowSchema.builder(Student.class)
+                .key("school", "id")
+                .packed("f1", "d")
+                .build();
+        TypedTable<Student> students = TypedTable.create(connection, null, "student", schema);
+        students.createTable(TableOptions.defaults());
+        students.put(student);
+        Student s = students.get("THU", 1001L);
+        students.scan(null, System.out::println, "THU");
+        */
+        // 增量变更流：按Region并行扫描水位之后写入的Cell，水位记录在changefeed-stu/_watermarks，重启后继续
+        /*
+        try (ChangeFeed feed = ChangeFeed.create(connection, null, "stu")
+                .checkpointDir("changefeed-stu")
+                .overlap(10000)
+                .includeDeletes(true)) {
+            feed.run(RowSink.asHandler(RowSinks.printing(System.out)));
+        }
+        */
+        // 客户端指标，也可以在JConsole中查看hbase.client:type=ClientMetrics
+        // ClientMetrics.get().startReporter(MetricsReporter.console(System.out), 10, TimeUnit.SECONDS);
+        // System.out.println(ClientMetrics.get().getOperation(ClientMetrics.OP_GET));
 
         closeConnection(connection);
     }
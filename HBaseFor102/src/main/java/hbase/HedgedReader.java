@@ -0,0 +1,361 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Consistency;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.exceptions.TimeoutIOException;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: HedgedReader
+ * Package: hbase
+ * Description: 对尾延迟敏感的get：主请求超过对冲延迟还没有返回时再发一个备份请求，取先返回的结果
+ * 对冲延迟默认取ClientMetrics中这张表get延迟的p95，样本不足时使用固定值
+ * 表有Region副本（TableOptions.regionReplication）时备份请求以TIMELINE一致性发到副本，可能读到旧数据，结果标记为stale；
+ * 没有副本时备份请求仍发到主Region，只能避开单次RPC的排队和重试
+ * 备份请求数限制在请求数的maxHedgeRatio以内，避免RegionServer变慢时请求量翻倍
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 23:30
+ * @Version 1.0
+ */
+public class HedgedReader implements Closeable {
+
+    public static final long DEFAULT_HEDGE_DELAY_MS = 10L;
+    public static final double DEFAULT_PERCENTILE = 95;
+    public static final double DEFAULT_MAX_HEDGE_RATIO = 0.1;
+    // 按百分位计算对冲延迟需要的最少样本数
+    private static final long MIN_SAMPLES = 100;
+    // 不受比例限制的备份请求数，刚开始请求数很少时也能对冲
+    private static final long HEDGE_BURST = 10;
+
+    // 带来源标记的结果
+    public static class TaggedResult {
+        private final Result result;
+        private final boolean hedged;
+        private final long micros;
+
+        TaggedResult(Result result, boolean hedged, long micros) {
+            this.result = result;
+            this.hedged = hedged;
+            this.micros = micros;
+        }
+
+        public Result getResult() {
+            return result;
+        }
+
+        // 行不存在
+        public boolean isEmpty() {
+            return result.isEmpty();
+        }
+
+        // 由副本返回，可能不是最新的数据
+        public boolean isStale() {
+            return result.isStale();
+        }
+
+        // 备份请求先返回
+        public boolean isHedged() {
+            return hedged;
+        }
+
+        public long getMicros() {
+            return micros;
+        }
+
+        @Override
+        public String toString() {
+            return (result.isEmpty() ? "(empty)" : Bytes.toString(result.getRow())) + " " + (isStale() ? "stale" : "fresh")
+                    + (hedged ? ", hedged" : "") + ", micros=" + micros;
+        }
+    }
+
+    // 一次请求的结果和是否为备份请求
+    private static final class Attempt {
+        private final Result result;
+        private final boolean backup;
+
+        Attempt(Result result, boolean backup) {
+            this.result = result;
+            this.backup = backup;
+        }
+    }
+
+    private final Connection connection;
+    private final TableName tableName;
+    private final int regionReplication;
+    private final ExecutorService executor;
+    private boolean timeline;
+    private boolean hedge = true;
+    private long hedgeDelayMs = -1;
+    private double percentile = DEFAULT_PERCENTILE;
+    private double maxHedgeRatio = DEFAULT_MAX_HEDGE_RATIO;
+    private long budgetMs;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong staleReads = new AtomicLong();
+    private final AtomicLong budgetExceeded = new AtomicLong();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private HedgedReader(Connection connection, TableName tableName, int regionReplication) {
+        this.connection = connection;
+        this.tableName = tableName;
+        this.regionReplication = regionReplication;
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "hedged-reader-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static HedgedReader create(Connection connection, String namespace, String tableName) throws IOException {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        TableName tn = TableName.valueOf(namespace, tableName);
+        return new HedgedReader(connection, tn,
+                TableCache.forConnection(connection).getDescriptor(tn).getRegionReplication());
+    }
+
+    // 主请求也使用TIMELINE一致性，由客户端在hbase.client.primaryCallTimeout.get之后自动读副本
+    public HedgedReader timeline(boolean timeline) {
+        this.timeline = timeline;
+        return this;
+    }
+
+    // 是否发送备份请求，默认开启
+    public HedgedReader hedge(boolean hedge) {
+        this.hedge = hedge;
+        return this;
+    }
+
+    // 固定的对冲延迟，小于0表示按百分位计算
+    public HedgedReader hedgeDelay(long hedgeDelayMs) {
+        this.hedgeDelayMs = hedgeDelayMs;
+        return this;
+    }
+
+    // 按这张表get延迟的百分位计算对冲延迟，取值0~100
+    public HedgedReader hedgeAtPercentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("百分位必须在(0, 100]之间");
+        }
+        this.percentile = percentile;
+        this.hedgeDelayMs = -1;
+        return this;
+    }
+
+    // 备份请求数最多占请求数的比例
+    public HedgedReader maxHedgeRatio(double maxHedgeRatio) {
+        if (maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+            throw new IllegalArgumentException("备份请求比例必须在[0, 1]之间");
+        }
+        this.maxHedgeRatio = maxHedgeRatio;
+        return this;
+    }
+
+    // 每次get的延迟预算，超过时抛出TimeoutIOException；小于等于0表示不限
+    public HedgedReader budget(long budgetMs) {
+        this.budgetMs = budgetMs;
+        return this;
+    }
+
+    public TaggedResult get(String rowKey) throws IOException {
+        return get(Bytes.toBytes(rowKey));
+    }
+
+    // 结果交给RowSink
+    public TaggedResult get(String rowKey, RowSink sink) throws IOException {
+        TaggedResult tagged = get(Bytes.toBytes(rowKey));
+        RowSink.accept(tagged.getResult(), sink);
+        return tagged;
+    }
+
+    private TaggedResult get(byte[] row) throws IOException {
+        long startNanos = System.nanoTime();
+        long deadline = budgetMs > 0 ? startNanos + TimeUnit.MILLISECONDS.toNanos(budgetMs) : Long.MAX_VALUE;
+        requests.incrementAndGet();
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_HEDGED_GET, tableName);
+        CompletionService<Attempt> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Attempt>> futures = new ArrayList<>(2);
+        try {
+            Get primary = new Get(row);
+            if (timeline) {
+                primary.setConsistency(Consistency.TIMELINE);
+            }
+            futures.add(completionService.submit(() -> attempt(primary, false)));
+            Future<Attempt> done = null;
+            if (hedge) {
+                long delayNanos = Math.min(TimeUnit.MICROSECONDS.toNanos(getHedgeDelayMicros()), deadline - System.nanoTime());
+                done = completionService.poll(Math.max(delayNanos, 0), TimeUnit.NANOSECONDS);
+                if (done == null && System.nanoTime() < deadline && allowHedge()) {
+                    hedges.incrementAndGet();
+                    Get backup = backupGet(row);
+                    futures.add(completionService.submit(() -> attempt(backup, true)));
+                }
+            }
+            int outstanding = futures.size();
+            IOException firstError = null;
+            while (outstanding > 0) {
+                if (done == null) {
+                    long remaining = deadline - System.nanoTime();
+                    done = deadline == Long.MAX_VALUE ? completionService.take()
+                            : completionService.poll(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        break;
+                    }
+                }
+                try {
+                    Attempt attempt = done.get();
+                    TaggedResult tagged = new TaggedResult(attempt.result, attempt.backup,
+                            (System.nanoTime() - startNanos) / 1000);
+                    if (attempt.backup) {
+                        hedgeWins.incrementAndGet();
+                    }
+                    if (tagged.isStale()) {
+                        staleReads.incrementAndGet();
+                    }
+                    timer.success(tagged.isEmpty() ? 0 : 1, attempt.result.size(), Result.getTotalSizeOfCells(attempt.result));
+                    return tagged;
+                } catch (ExecutionException e) {
+                    // 一个请求失败时等待另一个
+                    if (firstError == null) {
+                        firstError = e.getCause() instanceof IOException ? (IOException) e.getCause()
+                                : new IOException(e.getCause());
+                    }
+                    outstanding--;
+                    done = null;
+                }
+            }
+            if (firstError != null && outstanding == 0) {
+                throw firstError;
+            }
+            budgetExceeded.incrementAndGet();
+            throw new TimeoutIOException("get " + Bytes.toString(row) + " 超过延迟预算" + budgetMs + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timer.failure(e);
+            throw new InterruptedIOException("对冲读取被中断");
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        } finally {
+            for (Future<Attempt> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    // 单次请求按普通get记录指标，对冲延迟由这些样本计算
+    private Attempt attempt(Get get, boolean backup) throws IOException {
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_GET, tableName)
+                .region(connection, tableName, get.getRow());
+        try {
+            Result result;
+            if (budgetMs > 0) {
+                // 单独的Table，RPC和重试在预算内放弃，不影响TableCache中按线程缓存的Table
+                try (Table table = connection.getTableBuilder(tableName, null)
+                        .setOperationTimeout((int) budgetMs)
+                        .setReadRpcTimeout((int) budgetMs)
+                        .build()) {
+                    result = table.get(get);
+                }
+            } else {
+                result = TableCache.forConnection(connection).getTable(tableName).get(get);
+            }
+            timer.success(result.isEmpty() ? 0 : 1, result.size(), Result.getTotalSizeOfCells(result));
+            return new Attempt(result, backup);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+    }
+
+    // 有副本时轮流发到各个副本，没有副本时发到主Region
+    private Get backupGet(byte[] row) {
+        Get backup = new Get(row);
+        if (regionReplication > 1) {
+            backup.setConsistency(Consistency.TIMELINE);
+            backup.setReplicaId(1 + Math.floorMod(nextReplica.getAndIncrement(), regionReplication - 1));
+        }
+        return backup;
+    }
+
+    private boolean allowHedge() {
+        return hedges.get() < requests.get() * maxHedgeRatio + HEDGE_BURST;
+    }
+
+    // 当前的对冲延迟
+    public long getHedgeDelayMicros() {
+        if (hedgeDelayMs >= 0) {
+            return TimeUnit.MILLISECONDS.toMicros(hedgeDelayMs);
+        }
+        OperationMetrics metrics = ClientMetrics.get().getOperation(ClientMetrics.OP_GET, tableName);
+        if (metrics == null || metrics.getCount() < MIN_SAMPLES) {
+            return TimeUnit.MILLISECONDS.toMicros(DEFAULT_HEDGE_DELAY_MS);
+        }
+        return metrics.getLatency().getPercentile(percentile);
+    }
+
+    public int getRegionReplication() {
+        return regionReplication;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    // 发出的备份请求数
+    public long getHedges() {
+        return hedges.get();
+    }
+
+    // 备份请求先返回的次数
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    public long getStaleReads() {
+        return staleReads.get();
+    }
+
+    public long getBudgetExceeded() {
+        return budgetExceeded.get();
+    }
+
+    @Override
+    public String toString() {
+        return tableName.getNameAsString() + " replicas=" + regionReplication + ", hedgeDelayMicros=" + getHedgeDelayMicros()
+                + ", requests=" + requests + ", hedges=" + hedges + ", hedgeWins=" + hedgeWins
+                + ", staleReads=" + staleReads + ", budgetExceeded=" + budgetExceeded;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
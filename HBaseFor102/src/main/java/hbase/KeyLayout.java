@@ -0,0 +1,218 @@
+package hbase;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.MD5Hash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ClassName: KeyLayout
+ * Package: hbase
+ * Description: 行键设计：原行键与实际存储的行键之间的转换，用于打散单调递增的行键
+ * salted：按哈希取模加上定长的桶编号前缀；hashPrefix：加上MD5的前几位；reversed：行键反转
+ * 带前缀的行键按原行键范围扫描时，需要对每个前缀各扫描一次再归并，见KeyedTable
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 19:50
+ * @Version 1.0
+ */
+public abstract class KeyLayout {
+
+    // 原行键 -> 存储的行键
+    public abstract String toStored(String rowKey);
+
+    // 存储的行键 -> 原行键
+    public abstract String toLogical(byte[] stored, int offset, int length);
+
+    public String toLogical(String stored) {
+        byte[] bytes = Bytes.toBytes(stored);
+        return toLogical(bytes, 0, bytes.length);
+    }
+
+    // 存储行键中前缀的字节数，前缀之后就是原行键
+    public int getPrefixLength() {
+        return 0;
+    }
+
+    // 所有可能的前缀，扫描时每个前缀一个子范围；为null表示不能按原行键范围扫描
+    public abstract List<String> getPrefixes();
+
+    // 与行键设计配套的预分区切分点，配合TableOptions.splitKeys使用
+    public abstract byte[][] splitKeys();
+
+    // 不做转换
+    public static KeyLayout identity() {
+        return new Identity();
+    }
+
+    // buckets个桶，桶编号 = 原行键哈希值对buckets取模，前缀如 03_
+    public static KeyLayout salted(int buckets) {
+        if (buckets < 1 || buckets > 10000) {
+            throw new IllegalArgumentException("桶数必须在1~10000之间");
+        }
+        return new Salted(buckets);
+    }
+
+    // MD5的前length位十六进制作为前缀，如 a_；扫描时有16^length个子范围
+    public static KeyLayout hashPrefix(int length) {
+        if (length < 1 || length > 3) {
+            throw new IllegalArgumentException("哈希前缀长度必须在1~3之间");
+        }
+        return new HashPrefix(length);
+    }
+
+    // 行键反转，适合末尾变化快的数字行键；只支持单行操作和全表扫描
+    public static KeyLayout reversed() {
+        return new Reversed();
+    }
+
+    private static class Identity extends KeyLayout {
+        @Override
+        public String toStored(String rowKey) {
+            return rowKey;
+        }
+
+        @Override
+        public String toLogical(byte[] stored, int offset, int length) {
+            return Bytes.toString(stored, offset, length);
+        }
+
+        @Override
+        public List<String> getPrefixes() {
+            return Collections.singletonList("");
+        }
+
+        @Override
+        public byte[][] splitKeys() {
+            return new byte[0][];
+        }
+    }
+
+    // 定长前缀 + 原行键
+    private abstract static class Prefixed extends KeyLayout {
+        private final List<String> prefixes;
+        private final int prefixLength;
+
+        Prefixed(List<String> prefixes) {
+            this.prefixes = Collections.unmodifiableList(prefixes);
+            this.prefixLength = prefixes.get(0).length();
+        }
+
+        abstract String prefix(String rowKey);
+
+        @Override
+        public String toStored(String rowKey) {
+            return prefix(rowKey) + rowKey;
+        }
+
+        @Override
+        public String toLogical(byte[] stored, int offset, int length) {
+            return Bytes.toString(stored, offset + prefixLength, length - prefixLength);
+        }
+
+        @Override
+        public int getPrefixLength() {
+            return prefixLength;
+        }
+
+        @Override
+        public List<String> getPrefixes() {
+            return prefixes;
+        }
+    }
+
+    private static class Salted extends Prefixed {
+        private final int buckets;
+
+        Salted(int buckets) {
+            super(bucketPrefixes(buckets));
+            this.buckets = buckets;
+        }
+
+        private static List<String> bucketPrefixes(int buckets) {
+            int width = String.valueOf(buckets - 1).length();
+            List<String> prefixes = new ArrayList<>(buckets);
+            for (int i = 0; i < buckets; i++) {
+                prefixes.add(String.format("%0" + width + "d_", i));
+            }
+            return prefixes;
+        }
+
+        @Override
+        String prefix(String rowKey) {
+            return getPrefixes().get(Math.floorMod(Bytes.hashCode(Bytes.toBytes(rowKey)), buckets));
+        }
+
+        // 每个桶一个Region
+        @Override
+        public byte[][] splitKeys() {
+            byte[][] splitKeys = new byte[buckets - 1][];
+            for (int i = 1; i < buckets; i++) {
+                splitKeys[i - 1] = Bytes.toBytes(getPrefixes().get(i));
+            }
+            return splitKeys;
+        }
+    }
+
+    private static class HashPrefix extends Prefixed {
+        private final int length;
+
+        HashPrefix(int length) {
+            super(hexPrefixes(length));
+            this.length = length;
+        }
+
+        private static List<String> hexPrefixes(int length) {
+            int count = 1 << (4 * length);
+            List<String> prefixes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                prefixes.add(String.format("%0" + length + "x_", i));
+            }
+            return prefixes;
+        }
+
+        @Override
+        String prefix(String rowKey) {
+            return MD5Hash.getMD5AsHex(Bytes.toBytes(rowKey)).substring(0, length) + "_";
+        }
+
+        // 按第一位十六进制分为16个Region
+        @Override
+        public byte[][] splitKeys() {
+            byte[][] splitKeys = new byte[15][];
+            for (int i = 1; i < 16; i++) {
+                splitKeys[i - 1] = Bytes.toBytes(Integer.toHexString(i));
+            }
+            return splitKeys;
+        }
+    }
+
+    private static class Reversed extends KeyLayout {
+        @Override
+        public String toStored(String rowKey) {
+            return new StringBuilder(rowKey).reverse().toString();
+        }
+
+        @Override
+        public String toLogical(byte[] stored, int offset, int length) {
+            return new StringBuilder(Bytes.toString(stored, offset, length)).reverse().toString();
+        }
+
+        @Override
+        public List<String> getPrefixes() {
+            return null;
+        }
+
+        // 按数字行键的最后一位分为10个Region
+        @Override
+        public byte[][] splitKeys() {
+            byte[][] splitKeys = new byte[9][];
+            for (int i = 1; i < 10; i++) {
+                splitKeys[i - 1] = Bytes.toBytes(String.valueOf(i));
+            }
+            return splitKeys;
+        }
+    }
+}
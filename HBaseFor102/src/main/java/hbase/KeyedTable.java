@@ -0,0 +1,220 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * ClassName: KeyedTable
+ * Package: hbase
+ * Description: 在HBaseUtils的put/get/delete/scan之上按KeyLayout转换行键，调用方只使用原行键
+ * 扫描时对每个前缀分别扫描，再按原行键归并，结果与未加前缀时的顺序一致
+ * 多个前缀同时打开扫描器时，每个扫描器的caching和maxResultSize都被限制，客户端缓冲的数据不随前缀数成倍增长
+ * 交给RowSink的Cell中的行键已还原为原行键
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 20:10
+ * @Version 1.0
+ */
+public class KeyedTable {
+
+    // 多前缀归并时每个扫描器每次RPC最多取回的行数和字节数
+    public static final int FANOUT_CACHING = 100;
+    public static final long FANOUT_MAX_RESULT_SIZE = 256L * 1024;
+
+    private final Connection connection;
+    private final String namespace;
+    private final String tableName;
+    private final KeyLayout layout;
+
+    private KeyedTable(Connection connection, String namespace, String tableName, KeyLayout layout) {
+        this.connection = connection;
+        this.namespace = namespace;
+        this.tableName = tableName;
+        this.layout = layout;
+    }
+
+    public static KeyedTable create(Connection connection, String namespace, String tableName, KeyLayout layout) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        return new KeyedTable(connection, namespace, tableName, layout == null ? KeyLayout.identity() : layout);
+    }
+
+    public KeyLayout getLayout() {
+        return layout;
+    }
+
+    // 建表，TableOptions没有指定切分点时使用KeyLayout配套的切分点，每个桶落在不同的Region；不修改传入的options
+    public void createTable(TableOptions options, String... cfs) throws Exception {
+        options = options == null ? TableOptions.defaults() : options.copy();
+        if (options.getSplitKeys() == null) {
+            options.splitKeys(layout.splitKeys());
+        }
+        HBaseUtils.createTable(connection, namespace, tableName, options, cfs);
+    }
+
+    public void put(String rowKey, String cf, String cl, String v) throws IOException {
+        HBaseUtils.putData(connection, namespace, tableName, layout.toStored(rowKey), cf, cl, v);
+    }
+
+    public void delete(String rowKey, String cf, String cl) throws IOException {
+        HBaseUtils.deleteData(connection, namespace, tableName, layout.toStored(rowKey), cf, cl);
+    }
+
+    public void get(String rowKey, RowSink sink) throws IOException {
+        HBaseUtils.getData(connection, namespace, tableName, layout.toStored(rowKey), new LogicalRowSink(layout, sink));
+    }
+
+    /**
+     * 按原行键范围[startRow, stopRow)扫描，stopRow为null或空时扫描到末尾
+     * 反转的行键只能全表扫描，结果按存储的顺序返回
+     * 有多个前缀时，每个扫描器的caching不超过FANOUT_CACHING和limit，没有指定maxResultSize时使用FANOUT_MAX_RESULT_SIZE
+     *
+     * @return 返回的行数
+     */
+    public long scan(String startRow, String stopRow, ScanOptions options, RowSink sink) throws IOException {
+        boolean fullScan = (startRow == null || startRow.isEmpty()) && (stopRow == null || stopRow.isEmpty());
+        List<String> prefixes = layout.getPrefixes();
+        if (prefixes == null && !fullScan) {
+            throw new IllegalArgumentException("该行键设计不支持按原行键范围扫描");
+        }
+        if (prefixes == null) {
+            prefixes = Collections.singletonList("");
+        }
+        byte[] start = startRow == null ? new byte[0] : Bytes.toBytes(startRow);
+        byte[] stop = stopRow == null ? new byte[0] : Bytes.toBytes(stopRow);
+        Integer limit = options == null ? null : options.getLimit();
+        int prefixLength = layout.getPrefixLength();
+        boolean fanOut = prefixes.size() > 1;
+
+        TableName tn = TableName.valueOf(namespace, tableName);
+        Table table = TableCache.forConnection(connection).getTable(tn);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_SCAN, tn);
+        LogicalRowSink logicalSink = new LogicalRowSink(layout, sink);
+        // 每个前缀一个扫描器，按当前行的原行键排序
+        PriorityQueue<Head> heads = new PriorityQueue<>(prefixes.size(), (a, b) -> Bytes.compareTo(
+                a.row, prefixLength, a.row.length - prefixLength, b.row, prefixLength, b.row.length - prefixLength));
+        List<ResultScanner> scanners = new ArrayList<>(prefixes.size());
+        long rows = 0;
+        long cells = 0;
+        try {
+            for (String prefix : prefixes) {
+                byte[] prefixBytes = Bytes.toBytes(prefix);
+                Scan scan = new Scan();
+                if (options != null) {
+                    options.apply(scan);
+                }
+                if (fanOut) {
+                    bound(scan, options, limit);
+                }
+                scan.withStartRow(Bytes.add(prefixBytes, start));
+                if (stop.length > 0) {
+                    scan.withStopRow(Bytes.add(prefixBytes, stop));
+                } else if (prefixBytes.length > 0) {
+                    scan.withStopRow(Condition.prefixStopRow(prefixBytes));
+                }
+                ResultScanner scanner = table.getScanner(scan);
+                scanners.add(scanner);
+                Head head = new Head(scanner);
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+            while (!heads.isEmpty() && (limit == null || rows < limit)) {
+                Head head = heads.poll();
+                RowSink.accept(head.current, logicalSink);
+                rows++;
+                cells += head.current.size();
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+            timer.success(rows, cells, 0);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        } finally {
+            for (ResultScanner scanner : scanners) {
+                scanner.close();
+            }
+        }
+        return rows;
+    }
+
+    // 归并时每个扫描器最多只需要limit行（limit已由ScanOptions设置到Scan上）
+    private static void bound(Scan scan, ScanOptions options, Integer limit) {
+        int caching = options == null || options.getCaching() == null
+                ? FANOUT_CACHING : Math.min(options.getCaching(), FANOUT_CACHING);
+        if (limit != null) {
+            caching = Math.max(1, Math.min(caching, limit));
+        }
+        scan.setCaching(caching);
+        if (options == null || options.getMaxResultSize() == null) {
+            scan.setMaxResultSize(FANOUT_MAX_RESULT_SIZE);
+        }
+    }
+
+    private static class Head {
+        private final ResultScanner scanner;
+        private Result current;
+        private byte[] row;
+
+        Head(ResultScanner scanner) {
+            this.scanner = scanner;
+        }
+
+        boolean advance() throws IOException {
+            current = scanner.next();
+            row = current == null ? null : current.getRow();
+            return current != null;
+        }
+    }
+
+    // 把存储的行键还原为原行键再交给下游
+    private static class LogicalRowSink implements RowSink {
+        private final KeyLayout layout;
+        private final RowSink sink;
+        private byte[] row;
+
+        LogicalRowSink(KeyLayout layout, RowSink sink) {
+            this.layout = layout;
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(byte[] row, int offset, int length) throws IOException {
+            this.row = Bytes.toBytes(layout.toLogical(row, offset, length));
+            sink.startRow(this.row, 0, this.row.length);
+        }
+
+        @Override
+        public void cell(Cell cell) throws IOException {
+            sink.cell(new KeyValue(row, 0, row.length,
+                    cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength(),
+                    cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength(),
+                    cell.getTimestamp(), KeyValue.Type.codeToType(cell.getType().getCode()),
+                    cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+        }
+
+        @Override
+        public void endRow() throws IOException {
+            sink.endRow();
+        }
+    }
+}
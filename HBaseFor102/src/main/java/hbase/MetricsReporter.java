@@ -0,0 +1,29 @@
+package hbase;
+
+import java.io.PrintStream;
+import java.util.Collection;
+
+/**
+ * ClassName: MetricsReporter
+ * Package: hbase
+ * Description: 定期输出客户端指标，由ClientMetrics.startReporter调度
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 17:00
+ * @Version 1.0
+ */
+public interface MetricsReporter {
+
+    void report(Collection<OperationMetrics> metrics);
+
+    // 打印到控制台，跳过没有请求的指标
+    static MetricsReporter console(PrintStream out) {
+        return metrics -> {
+            for (OperationMetrics operationMetrics : metrics) {
+                if (operationMetrics.getCount() > 0) {
+                    out.println(operationMetrics);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package hbase;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: OperationMetrics
+ * Package: hbase
+ * Description: 一个操作在一张表（或一个Region）上的计数和延迟分布
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 16:50
+ * @Version 1.0
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    private final String operation;
+    private final String table;
+    private final String region;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong cells = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    // 记录过重试数（来自ScanMetrics）之后为true
+    private volatile boolean retriesTracked;
+
+    OperationMetrics(String operation, String table, String region) {
+        this.operation = operation;
+        this.table = table;
+        this.region = region;
+    }
+
+    void record(long micros, long rows, long cells, long bytes, boolean error) {
+        latency.record(micros);
+        this.rows.addAndGet(rows);
+        this.cells.addAndGet(cells);
+        this.bytes.addAndGet(bytes);
+        if (error) {
+            errors.incrementAndGet();
+        }
+    }
+
+    void addRetries(long retries) {
+        this.retries.addAndGet(retries);
+        retriesTracked = true;
+    }
+
+    @Override
+    public String getOperation() {
+        return operation;
+    }
+
+    // 汇总所有表时为null
+    @Override
+    public String getTable() {
+        return table;
+    }
+
+    // 不按Region统计时为null
+    @Override
+    public String getRegion() {
+        return region;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.get();
+    }
+
+    // 只有Scan类操作有重试数，其他操作返回-1
+    @Override
+    public long getRetries() {
+        return retriesTracked ? retries.get() : -1;
+    }
+
+    @Override
+    public long getRows() {
+        return rows.get();
+    }
+
+    @Override
+    public long getCells() {
+        return cells.get();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMean();
+    }
+
+    @Override
+    public long getP50Micros() {
+        return latency.getPercentile(50);
+    }
+
+    @Override
+    public long getP95Micros() {
+        return latency.getPercentile(95);
+    }
+
+    @Override
+    public long getP99Micros() {
+        return latency.getPercentile(99);
+    }
+
+    @Override
+    public long getP999Micros() {
+        return latency.getPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return latency.getMax();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.set(0);
+        retries.set(0);
+        rows.set(0);
+        cells.set(0);
+        bytes.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return operation + (table == null ? "" : "[" + table + (region == null ? "" : "/" + region) + "]")
+                + " count=" + getCount() + " errors=" + getErrors()
+                + (retriesTracked ? " retries=" + getRetries() : "")
+                + " rows=" + getRows() + " cells=" + getCells() + " bytes=" + getBytes()
+                + " p50=" + getP50Micros() + "us p95=" + getP95Micros() + "us p99=" + getP99Micros()
+                + "us p999=" + getP999Micros() + "us max=" + getMaxMicros() + "us";
+    }
+}
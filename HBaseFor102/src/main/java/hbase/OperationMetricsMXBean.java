@@ -0,0 +1,45 @@
+package hbase;
+
+/**
+ * ClassName: OperationMetricsMXBean
+ * Package: hbase
+ * Description: 通过JMX暴露的单个操作（按表、按Region）的指标，延迟单位为微秒
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 16:50
+ * @Version 1.0
+ */
+public interface OperationMetricsMXBean {
+    String getOperation();
+
+    String getTable();
+
+    String getRegion();
+
+    long getCount();
+
+    long getErrors();
+
+    // 只有Scan类操作有重试数，其他操作为-1
+    long getRetries();
+
+    long getRows();
+
+    long getCells();
+
+    long getBytes();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP95Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    void reset();
+}
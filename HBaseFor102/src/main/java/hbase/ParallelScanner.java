@@ -0,0 +1,320 @@
+package hbase;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: ParallelScanner
+ * Package: hbase
+ * Description: 按Region边界切分扫描范围，在有界线程池中并行扫描各个子范围
+ * 有序模式按行键顺序把结果交给调用线程；无序模式在扫描线程中直接回调，回调需要线程安全
+ * 模板Scan的limit对整个扫描生效而不是每个子范围：有序模式返回前limit行，无序模式返回任意limit行
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 12:20
+ * @Version 1.0
+ */
+public class ParallelScanner implements Closeable {
+
+    // 有序模式下每个子范围最多缓存的Result数
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    // 处理扫描结果的回调
+    public interface ResultHandler {
+        void onResult(Result result) throws IOException;
+    }
+
+    // 一个子扫描范围，对应一个Region与请求范围的交集
+    public static class ScanSplit {
+        private final byte[] startRow;
+        private final byte[] stopRow;
+        private final String regionName;
+
+        public ScanSplit(byte[] startRow, byte[] stopRow, String regionName) {
+            this.startRow = startRow;
+            this.stopRow = stopRow;
+            this.regionName = regionName;
+        }
+
+        // 包含，空数组表示表的起点
+        public byte[] getStartRow() {
+            return startRow;
+        }
+
+        // 不包含，空数组表示表的终点
+        public byte[] getStopRow() {
+            return stopRow;
+        }
+
+        public String getRegionName() {
+            return regionName;
+        }
+
+        // 基于模板Scan构造该子范围的Scan，保留模板的limit，需要整体限制行数时由调用方处理
+        public Scan toScan(Scan template) throws IOException {
+            Scan scan = new Scan(template);
+            scan.withStartRow(startRow, true).withStopRow(stopRow, false);
+            return scan;
+        }
+
+        @Override
+        public String toString() {
+            return regionName + "[" + Bytes.toStringBinary(startRow) + ", " + Bytes.toStringBinary(stopRow) + ")";
+        }
+    }
+
+    // 队列中标识子扫描结束
+    private static final Object END = new Object();
+
+    private final Connection connection;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int queueCapacity;
+
+    public ParallelScanner(Connection connection, int parallelism) {
+        this(connection, parallelism, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public ParallelScanner(Connection connection, int parallelism, int queueCapacity) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (parallelism <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("并行度和队列容量必须大于0");
+        }
+        this.connection = connection;
+        this.parallelism = parallelism;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "parallel-scanner-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // 按Region边界切分[startRow, stopRow)，空数组表示不限
+    public static List<ScanSplit> split(Connection connection, TableName tn, byte[] startRow, byte[] stopRow) throws IOException {
+        byte[] start = startRow == null ? HConstants.EMPTY_START_ROW : startRow;
+        byte[] stop = stopRow == null ? HConstants.EMPTY_END_ROW : stopRow;
+        List<ScanSplit> splits = new ArrayList<>();
+        try (RegionLocator regionLocator = connection.getRegionLocator(tn)) {
+            Pair<byte[][], byte[][]> keys = regionLocator.getStartEndKeys();
+            byte[][] regionStarts = keys.getFirst();
+            byte[][] regionEnds = keys.getSecond();
+            for (int i = 0; i < regionStarts.length; i++) {
+                // 取Region与请求范围的交集
+                byte[] splitStart = Bytes.compareTo(regionStarts[i], start) > 0 ? regionStarts[i] : start;
+                byte[] splitStop;
+                if (stop.length == 0) {
+                    splitStop = regionEnds[i];
+                } else if (regionEnds[i].length == 0) {
+                    splitStop = stop;
+                } else {
+                    splitStop = Bytes.compareTo(regionEnds[i], stop) < 0 ? regionEnds[i] : stop;
+                }
+                if (splitStop.length != 0 && Bytes.compareTo(splitStart, splitStop) >= 0) {
+                    continue;
+                }
+                splits.add(new ScanSplit(splitStart, splitStop, Bytes.toStringBinary(regionStarts[i])));
+            }
+        }
+        return splits;
+    }
+
+    public static List<ScanSplit> split(Connection connection, TableName tn, Scan scan) throws IOException {
+        return split(connection, tn, scan.getStartRow(), scan.getStopRow());
+    }
+
+    // 有序扫描，handler在调用线程中按行键顺序执行，返回行数
+    public long scanOrdered(String namespace, String tableName, Scan template, ResultHandler handler) throws IOException {
+        TableName tn = TableName.valueOf(namespace, tableName);
+        List<ScanSplit> splits = split(connection, tn, template);
+        int limit = template.getLimit();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<BlockingQueue<Object>> queues = new ArrayList<>(splits.size());
+        List<Future<?>> futures = new ArrayList<>(splits.size());
+        // 按顺序提交，线程池先执行靠前的子范围，调用线程等待的子范围一定已经开始或已结束
+        for (ScanSplit split : splits) {
+            BlockingQueue<Object> queue = new LinkedBlockingQueue<>(queueCapacity);
+            Scan scan = unlimited(split.toScan(template));
+            queues.add(queue);
+            futures.add(executor.submit(() -> produce(tn, scan, queue, cancelled)));
+        }
+        long rows = 0;
+        try {
+            for (BlockingQueue<Object> queue : queues) {
+                while (limit <= 0 || rows < limit) {
+                    Object item = queue.take();
+                    if (item == END) {
+                        break;
+                    }
+                    if (item instanceof Throwable) {
+                        throw asIOException((Throwable) item);
+                    }
+                    handler.onResult((Result) item);
+                    rows++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("并行扫描被中断");
+        } finally {
+            cancelled.set(true);
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return rows;
+    }
+
+    // 无序扫描，handler在多个扫描线程中并发执行，返回行数
+    public long scanUnordered(String namespace, String tableName, Scan template, ResultHandler handler) throws IOException {
+        TableName tn = TableName.valueOf(namespace, tableName);
+        List<ScanSplit> splits = split(connection, tn, template);
+        int limit = template.getLimit();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicLong rows = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>(splits.size());
+        for (ScanSplit split : splits) {
+            Scan scan = unlimited(split.toScan(template));
+            scan.setScanMetricsEnabled(true);
+            futures.add(executor.submit(() -> {
+                if (cancelled.get()) {
+                    return null;
+                }
+                ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_SCAN, tn);
+                long splitRows = 0;
+                long cells = 0;
+                try (Table table = connection.getTable(tn);
+                     ResultScanner resultScanner = table.getScanner(scan)) {
+                    for (Result result : resultScanner) {
+                        if (cancelled.get()) {
+                            break;
+                        }
+                        // 先占用一行的名额，达到limit后通知其他子范围停止
+                        long claimed = rows.getAndUpdate(n -> limit <= 0 || n < limit ? n + 1 : n);
+                        if (limit > 0 && claimed >= limit) {
+                            cancelled.set(true);
+                            break;
+                        }
+                        handler.onResult(result);
+                        splitRows++;
+                        cells += result.size();
+                    }
+                    timer.success(resultScanner.getScanMetrics(), splitRows, cells);
+                } catch (Exception e) {
+                    timer.failure(e);
+                    throw e;
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("并行扫描被中断");
+        } catch (ExecutionException e) {
+            throw asIOException(e.getCause());
+        } finally {
+            cancelled.set(true);
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return rows.get();
+    }
+
+    // 子范围不带limit，整体的limit由scanOrdered/scanUnordered统一控制
+    private static Scan unlimited(Scan scan) {
+        scan.setLimit(-1);
+        return scan;
+    }
+
+    // 扫描一个子范围，把结果放入队列，最后放入END或异常
+    private void produce(TableName tn, Scan scan, BlockingQueue<Object> queue, AtomicBoolean cancelled) {
+        Object last = END;
+        scan.setScanMetricsEnabled(true);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_SCAN, tn);
+        long rows = 0;
+        long cells = 0;
+        try (Table table = connection.getTable(tn);
+             ResultScanner resultScanner = table.getScanner(scan)) {
+            for (Result result : resultScanner) {
+                if (!offer(queue, result, cancelled)) {
+                    return;
+                }
+                rows++;
+                cells += result.size();
+            }
+            timer.success(resultScanner.getScanMetrics(), rows, cells);
+        } catch (Throwable t) {
+            timer.failure(t);
+            last = t;
+        }
+        offer(queue, last, cancelled);
+    }
+
+    // 队列满时等待，取消后放弃
+    private static boolean offer(BlockingQueue<Object> queue, Object item, AtomicBoolean cancelled) {
+        try {
+            while (!cancelled.get()) {
+                if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private static IOException asIOException(Throwable t) {
+        if (t instanceof IOException) {
+            return (IOException) t;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IOException(t);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,94 @@
+package hbase;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: RateLimiter
+ * Package: hbase
+ * Description: 令牌桶限速，每秒补充permitsPerSecond个令牌，最多积攒1秒的令牌
+ * 一次申请的令牌数超过桶中剩余时先透支，由调用线程等待补齐
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 20:40
+ * @Version 1.0
+ */
+public class RateLimiter {
+
+    private double permitsPerSecond;
+    private double available;
+    private long lastRefillNanos = System.nanoTime();
+
+    private RateLimiter(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.available = permitsPerSecond;
+    }
+
+    // permitsPerSecond小于等于0表示不限速
+    public static RateLimiter create(double permitsPerSecond) {
+        return new RateLimiter(permitsPerSecond);
+    }
+
+    public static RateLimiter unlimited() {
+        return new RateLimiter(0);
+    }
+
+    public synchronized double getRate() {
+        return permitsPerSecond;
+    }
+
+    // 运行中调整速率，已透支的令牌按新速率偿还
+    public synchronized void setRate(double permitsPerSecond) {
+        refill();
+        this.permitsPerSecond = permitsPerSecond;
+        if (permitsPerSecond > 0) {
+            available = Math.min(available, permitsPerSecond);
+        }
+    }
+
+    // 申请permits个令牌，不足时阻塞
+    public void acquire(int permits) throws InterruptedIOException {
+        long waitNanos = reserve(permits);
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待令牌被中断");
+        }
+    }
+
+    // 令牌足够时申请并返回true，不足时不等待
+    public synchronized boolean tryAcquire(int permits) {
+        if (permitsPerSecond <= 0) {
+            return true;
+        }
+        refill();
+        if (available < permits) {
+            return false;
+        }
+        available -= permits;
+        return true;
+    }
+
+    // 扣除令牌，返回需要等待的纳秒数
+    private synchronized long reserve(int permits) {
+        if (permitsPerSecond <= 0) {
+            return 0;
+        }
+        refill();
+        available -= permits;
+        return available >= 0 ? 0 : (long) (-available / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (permitsPerSecond > 0) {
+            double added = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1) * permitsPerSecond;
+            available = Math.min(permitsPerSecond, available + added);
+        }
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,304 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: RowCache
+ * Package: hbase
+ * Description: getData前的客户端行缓存，每个Connection一份，需要先enable
+ * 按字节数限制大小，LRU淘汰，超过TTL的条目视为不存在；不存在的行也会缓存
+ * 同一个客户端通过putData/deleteData/BatchWriter写入时使对应行失效，AsyncHBaseUtils的写入使本进程所有行缓存中的对应行失效，
+ * 其他客户端的写入只能等TTL过期
+ * 按行键哈希分为16段，每段有自己的锁、LRU和失效计数，某行失效只影响同段正在进行的读取能否放入缓存
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 17:40
+ * @Version 1.0
+ */
+public class RowCache {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_TTL_MS = TimeUnit.SECONDS.toMillis(30);
+    // 每个条目除Cell之外的估算开销
+    private static final int ENTRY_OVERHEAD = 96;
+    // 段数，2的幂
+    private static final int SEGMENTS = 16;
+
+    private static final Map<Connection, RowCache> CACHES = new ConcurrentHashMap<>();
+
+    private static final class Key {
+        private final TableName tableName;
+        private final byte[] row;
+        private final int hash;
+
+        Key(TableName tableName, byte[] row) {
+            this.tableName = tableName;
+            this.row = row;
+            this.hash = 31 * tableName.hashCode() + Bytes.hashCode(row);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return tableName.equals(other.tableName) && Bytes.equals(row, other.row);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final Result result;
+        private final long weight;
+        private final long expireAt;
+
+        Entry(Result result, long weight, long expireAt) {
+            this.result = result;
+            this.weight = weight;
+            this.expireAt = expireAt;
+        }
+    }
+
+    // 按行键哈希分段，每段独立加锁、独立LRU和失效计数，不同行的读写不争同一把锁
+    private static final class Segment {
+        private final long maxBytes;
+        // 访问顺序的LinkedHashMap，头部是最久未访问的条目
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+        // 本段每次失效加一，读取期间本段发生过失效的结果不放入缓存
+        private long generation;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private void remove(Key key) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                bytes -= removed.weight;
+            }
+        }
+    }
+
+    private final long maxBytes;
+    private final long ttlMs;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private RowCache(long maxBytes, long ttlMs) {
+        this.maxBytes = maxBytes;
+        this.ttlMs = ttlMs;
+        // 每段平分总大小，淘汰在段内按LRU进行
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(Math.max(1, maxBytes / SEGMENTS));
+        }
+    }
+
+    // 为连接开启行缓存，已开启时返回已有的缓存
+    public static RowCache enable(Connection connection) {
+        return enable(connection, DEFAULT_MAX_BYTES, DEFAULT_TTL_MS);
+    }
+
+    public static RowCache enable(Connection connection, long maxBytes, long ttlMs) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (maxBytes <= 0 || ttlMs <= 0) {
+            throw new IllegalArgumentException("缓存大小和TTL必须大于0");
+        }
+        return CACHES.computeIfAbsent(connection, c -> new RowCache(maxBytes, ttlMs));
+    }
+
+    // 没有开启时返回null
+    public static RowCache forConnection(Connection connection) {
+        return connection == null ? null : CACHES.get(connection);
+    }
+
+    // 关闭行缓存并清空
+    public static void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        RowCache cache = CACHES.remove(connection);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    // 不经过Connection的写入（如AsyncHBaseUtils）之后调用，使本进程所有行缓存中的对应行失效
+    public static void invalidateAll(TableName tn, byte[] row) {
+        for (RowCache cache : CACHES.values()) {
+            cache.invalidate(tn, row);
+        }
+    }
+
+    private Segment segmentFor(Key key) {
+        int h = key.hash;
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    // 命中返回缓存的Result（可能为空行），未命中或已过期返回null
+    public Result get(TableName tn, byte[] row) {
+        Key key = new Key(tn, row);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Entry entry = segment.entries.get(key);
+            if (entry != null) {
+                if (System.currentTimeMillis() < entry.expireAt) {
+                    hits.incrementAndGet();
+                    return entry.result;
+                }
+                segment.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    // 读取前调用，返回行所在段的失效计数，和put配合判断读取期间是否有写入
+    public long generation(TableName tn, byte[] row) {
+        Segment segment = segmentFor(new Key(tn, row));
+        synchronized (segment) {
+            return segment.generation;
+        }
+    }
+
+    // 放入读取的结果；读取期间所在段发生过失效时放弃，避免缓存旧值
+    public void put(TableName tn, byte[] row, Result result, long generationBeforeRead) {
+        long weight = ENTRY_OVERHEAD + row.length + Result.getTotalSizeOfCells(result);
+        Key key = new Key(tn, row);
+        Segment segment = segmentFor(key);
+        if (weight > segment.maxBytes) {
+            return;
+        }
+        synchronized (segment) {
+            if (segment.generation != generationBeforeRead) {
+                return;
+            }
+            segment.remove(key);
+            segment.entries.put(key, new Entry(result, weight, System.currentTimeMillis() + ttlMs));
+            segment.bytes += weight;
+            Iterator<Map.Entry<Key, Entry>> iterator = segment.entries.entrySet().iterator();
+            while (segment.bytes > segment.maxBytes && iterator.hasNext()) {
+                Entry eldest = iterator.next().getValue();
+                iterator.remove();
+                segment.bytes -= eldest.weight;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    // 写入或删除行之后调用，只锁行所在的段
+    public void invalidate(TableName tn, byte[] row) {
+        Key key = new Key(tn, row);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.generation++;
+            segment.remove(key);
+        }
+        invalidations.incrementAndGet();
+    }
+
+    // 整张表失效，如删表、批量导入之后
+    public void invalidate(TableName tn) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.generation++;
+                Iterator<Map.Entry<Key, Entry>> iterator = segment.entries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Key, Entry> entry = iterator.next();
+                    if (entry.getKey().tableName.equals(tn)) {
+                        iterator.remove();
+                        segment.bytes -= entry.getValue().weight;
+                    }
+                }
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.generation++;
+                segment.entries.clear();
+                segment.bytes = 0;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long getBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                bytes += segment.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return "RowCache{rows=" + size() + ", bytes=" + getBytes() + "/" + maxBytes
+                + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", hitRate=" + String.format("%.3f", getHitRate())
+                + ", evictions=" + getEvictions() + ", invalidations=" + getInvalidations() + "}";
+    }
+}
@@ -0,0 +1,361 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Order;
+import org.apache.hadoop.hbase.util.OrderedBytes;
+import org.apache.hadoop.hbase.util.PositionedByteRange;
+import org.apache.hadoop.hbase.util.SimplePositionedMutableByteRange;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ClassName: RowCodec
+ * Package: hbase
+ * Description: 按RowSchema编码和解码一行，编码缓冲区和解码用的ByteRange在行之间复用，不是线程安全的
+ * 打包格式：1字节版本 + 空值位图 + 按字段顺序的值，定长类型直接写入，String和byte[]先写变长的长度
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 23:50
+ * @Version 1.0
+ */
+public class RowCodec<T> {
+
+    private static final byte PACKED_VERSION = 1;
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final RowSchema<T> schema;
+    private PositionedByteRange buffer = new SimplePositionedMutableByteRange(INITIAL_BUFFER_SIZE);
+    // 只读的SimplePositionedByteRange不能重新set，解码也用可变的实现
+    private final PositionedByteRange reader = new SimplePositionedMutableByteRange();
+
+    RowCodec(RowSchema<T> schema) {
+        this.schema = schema;
+    }
+
+    public RowSchema<T> getSchema() {
+        return schema;
+    }
+
+    // 对象转为Put，值为null的字段不写入（打包时记在空值位图中）
+    // 按列存储时是upsert：null字段对应的列保留原来的值，不会被删除；所有值字段都为null时没有可写的列，直接拒绝
+    public Put encode(T object) {
+        Put put = new Put(keyOf(object));
+        if (schema.isPacked()) {
+            put.addColumn(schema.getPackedFamily(), schema.getPackedQualifier(), encodePacked(object));
+            return put;
+        }
+        for (RowSchema.FieldMapping mapping : schema.getValueFields()) {
+            Object value = mapping.get(object);
+            if (value != null) {
+                put.addColumn(mapping.getFamily(), mapping.getQualifier(), toBytes(mapping.getType(), value));
+            }
+        }
+        if (put.isEmpty()) {
+            throw new IllegalArgumentException("所有值字段都为null，没有可写入的列：" + Bytes.toStringBinary(put.getRow()));
+        }
+        return put;
+    }
+
+    // 对象的行键
+    public byte[] keyOf(T object) {
+        List<RowSchema.FieldMapping> keyFields = schema.getKeyFields();
+        Object[] values = new Object[keyFields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = keyFields.get(i).get(object);
+        }
+        return encodeKey(values);
+    }
+
+    // 行键字段的值，只给出前几个字段时得到的是行键前缀，可以用于前缀扫描
+    public byte[] encodeKey(Object... keyValues) {
+        List<RowSchema.FieldMapping> keyFields = schema.getKeyFields();
+        if (keyValues.length > keyFields.size()) {
+            throw new IllegalArgumentException("行键字段只有" + keyFields.size() + "个");
+        }
+        int estimate = 0;
+        for (Object value : keyValues) {
+            estimate += estimateOrdered(value);
+        }
+        PositionedByteRange dst = reset(estimate);
+        for (int i = 0; i < keyValues.length; i++) {
+            if (keyValues[i] == null) {
+                throw new IllegalArgumentException("行键字段不能为空：" + keyFields.get(i).getField().getName());
+            }
+            encodeOrdered(dst, keyFields.get(i).getType(), keyValues[i]);
+        }
+        return Arrays.copyOf(dst.getBytes(), dst.getPosition());
+    }
+
+    // 解码行键为各字段的值
+    public Object[] decodeKey(byte[] row) {
+        List<RowSchema.FieldMapping> keyFields = schema.getKeyFields();
+        reader.set(row);
+        reader.setPosition(0);
+        Object[] values = new Object[keyFields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = decodeOrdered(reader, keyFields.get(i).getType());
+        }
+        return values;
+    }
+
+    // 行不存在时返回null
+    public T decode(Result result) {
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+        T object = schema.newInstance();
+        Object[] keyValues = decodeKey(result.getRow());
+        List<RowSchema.FieldMapping> keyFields = schema.getKeyFields();
+        for (int i = 0; i < keyValues.length; i++) {
+            keyFields.get(i).set(object, keyValues[i]);
+        }
+        if (schema.isPacked()) {
+            Cell cell = result.getColumnLatestCell(schema.getPackedFamily(), schema.getPackedQualifier());
+            if (cell != null) {
+                decodePacked(cell, object);
+            }
+            return object;
+        }
+        for (RowSchema.FieldMapping mapping : schema.getValueFields()) {
+            Cell cell = result.getColumnLatestCell(mapping.getFamily(), mapping.getQualifier());
+            if (cell != null) {
+                mapping.set(object, fromBytes(mapping.getType(), cell.getValueArray(), cell.getValueOffset(),
+                        cell.getValueLength()));
+            }
+        }
+        return object;
+    }
+
+    private byte[] encodePacked(T object) {
+        List<RowSchema.FieldMapping> fields = schema.getValueFields();
+        Object[] values = new Object[fields.size()];
+        int bitmapLength = (fields.size() + 7) / 8;
+        int estimate = 1 + bitmapLength;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = fields.get(i).get(object);
+            estimate += estimatePacked(fields.get(i).getType(), values[i]);
+        }
+        PositionedByteRange dst = reset(estimate);
+        dst.put(PACKED_VERSION);
+        // 空值位图
+        for (int b = 0; b < bitmapLength; b++) {
+            byte bits = 0;
+            for (int i = b * 8; i < Math.min(values.length, b * 8 + 8); i++) {
+                if (values[i] == null) {
+                    bits |= 1 << (i - b * 8);
+                }
+            }
+            dst.put(bits);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                putPacked(dst, fields.get(i).getType(), values[i]);
+            }
+        }
+        return Arrays.copyOf(dst.getBytes(), dst.getPosition());
+    }
+
+    private void decodePacked(Cell cell, T object) {
+        List<RowSchema.FieldMapping> fields = schema.getValueFields();
+        reader.set(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        reader.setPosition(0);
+        byte version = reader.get();
+        if (version != PACKED_VERSION) {
+            throw new IllegalStateException("不支持的打包格式版本：" + version + "，行：" + Bytes.toStringBinary(CellUtil.cloneRow(cell)));
+        }
+        int bitmapLength = (fields.size() + 7) / 8;
+        int bitmapStart = reader.getPosition();
+        reader.setPosition(bitmapStart + bitmapLength);
+        for (int i = 0; i < fields.size(); i++) {
+            boolean isNull = (reader.get(bitmapStart + i / 8) & (1 << (i % 8))) != 0;
+            if (!isNull) {
+                fields.get(i).set(object, getPacked(reader, fields.get(i).getType()));
+            }
+        }
+    }
+
+    // 复用缓冲区，不够时扩容
+    private PositionedByteRange reset(int capacity) {
+        if (buffer.getLength() < capacity) {
+            buffer = new SimplePositionedMutableByteRange(Math.max(capacity, buffer.getLength() * 2));
+        }
+        buffer.setPosition(0);
+        return buffer;
+    }
+
+    // 与Bytes.toBytes一致的定长编码
+    static byte[] toBytes(RowSchema.FieldType type, Object value) {
+        switch (type) {
+            case INT:
+                return Bytes.toBytes(((Number) value).intValue());
+            case LONG:
+                return Bytes.toBytes(((Number) value).longValue());
+            case SHORT:
+                return Bytes.toBytes(((Number) value).shortValue());
+            case DOUBLE:
+                return Bytes.toBytes(((Number) value).doubleValue());
+            case FLOAT:
+                return Bytes.toBytes(((Number) value).floatValue());
+            case BOOLEAN:
+                return Bytes.toBytes((Boolean) value);
+            case STRING:
+                return Bytes.toBytes((String) value);
+            default:
+                return (byte[]) value;
+        }
+    }
+
+    // 长度与类型不符的值（如以前用字符串写入的数字）按null处理
+    static Object fromBytes(RowSchema.FieldType type, byte[] bytes, int offset, int length) {
+        if (type.getWidth() > 0 && length != type.getWidth()) {
+            return null;
+        }
+        switch (type) {
+            case INT:
+                return Bytes.toInt(bytes, offset);
+            case LONG:
+                return Bytes.toLong(bytes, offset);
+            case SHORT:
+                return Bytes.toShort(bytes, offset);
+            case DOUBLE:
+                return Bytes.toDouble(bytes, offset);
+            case FLOAT:
+                return Bytes.toFloat(bytes, offset);
+            case BOOLEAN:
+                return bytes[offset] != 0;
+            case STRING:
+                return Bytes.toString(bytes, offset, length);
+            default:
+                return Arrays.copyOfRange(bytes, offset, offset + length);
+        }
+    }
+
+    private static void putPacked(PositionedByteRange dst, RowSchema.FieldType type, Object value) {
+        switch (type) {
+            case INT:
+                dst.putInt(((Number) value).intValue());
+                break;
+            case LONG:
+                dst.putLong(((Number) value).longValue());
+                break;
+            case SHORT:
+                dst.putShort(((Number) value).shortValue());
+                break;
+            case DOUBLE:
+                dst.putLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+                break;
+            case FLOAT:
+                dst.putInt(Float.floatToIntBits(((Number) value).floatValue()));
+                break;
+            case BOOLEAN:
+                dst.put((Boolean) value ? (byte) 1 : (byte) 0);
+                break;
+            default:
+                byte[] bytes = type == RowSchema.FieldType.STRING ? Bytes.toBytes((String) value) : (byte[]) value;
+                dst.putVLong(bytes.length);
+                dst.put(bytes);
+                break;
+        }
+    }
+
+    private static Object getPacked(PositionedByteRange src, RowSchema.FieldType type) {
+        switch (type) {
+            case INT:
+                return src.getInt();
+            case LONG:
+                return src.getLong();
+            case SHORT:
+                return src.getShort();
+            case DOUBLE:
+                return Double.longBitsToDouble(src.getLong());
+            case FLOAT:
+                return Float.intBitsToFloat(src.getInt());
+            case BOOLEAN:
+                return src.get() != 0;
+            default:
+                int length = (int) src.getVLong();
+                int start = src.getOffset() + src.getPosition();
+                src.setPosition(src.getPosition() + length);
+                return type == RowSchema.FieldType.STRING ? Bytes.toString(src.getBytes(), start, length)
+                        : Arrays.copyOfRange(src.getBytes(), start, start + length);
+        }
+    }
+
+    private static int estimatePacked(RowSchema.FieldType type, Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (type.getWidth() > 0) {
+            return type.getWidth();
+        }
+        // 变长长度最多9字节，String按UTF-8最多3字节一个char
+        return 9 + (value instanceof String ? ((String) value).length() * 3 : ((byte[]) value).length);
+    }
+
+    // OrderedBytes编码，字节序与值的顺序一致
+    private static void encodeOrdered(PositionedByteRange dst, RowSchema.FieldType type, Object value) {
+        switch (type) {
+            case INT:
+                OrderedBytes.encodeInt32(dst, ((Number) value).intValue(), Order.ASCENDING);
+                break;
+            case LONG:
+                OrderedBytes.encodeInt64(dst, ((Number) value).longValue(), Order.ASCENDING);
+                break;
+            case SHORT:
+                OrderedBytes.encodeInt16(dst, ((Number) value).shortValue(), Order.ASCENDING);
+                break;
+            case DOUBLE:
+                OrderedBytes.encodeFloat64(dst, ((Number) value).doubleValue(), Order.ASCENDING);
+                break;
+            case FLOAT:
+                OrderedBytes.encodeFloat32(dst, ((Number) value).floatValue(), Order.ASCENDING);
+                break;
+            case BOOLEAN:
+                OrderedBytes.encodeInt8(dst, (Boolean) value ? (byte) 1 : (byte) 0, Order.ASCENDING);
+                break;
+            case STRING:
+                OrderedBytes.encodeString(dst, (String) value, Order.ASCENDING);
+                break;
+            default:
+                OrderedBytes.encodeBlobVar(dst, (byte[]) value, Order.ASCENDING);
+                break;
+        }
+    }
+
+    private static Object decodeOrdered(PositionedByteRange src, RowSchema.FieldType type) {
+        switch (type) {
+            case INT:
+                return OrderedBytes.decodeInt32(src);
+            case LONG:
+                return OrderedBytes.decodeInt64(src);
+            case SHORT:
+                return OrderedBytes.decodeInt16(src);
+            case DOUBLE:
+                return OrderedBytes.decodeFloat64(src);
+            case FLOAT:
+                return OrderedBytes.decodeFloat32(src);
+            case BOOLEAN:
+                return OrderedBytes.decodeInt8(src) != 0;
+            case STRING:
+                return OrderedBytes.decodeString(src);
+            default:
+                return OrderedBytes.decodeBlobVar(src);
+        }
+    }
+
+    // 编码后的最大长度：1字节类型头 + 值；String以0x00结尾；blobVar每7字节扩展为8字节
+    private static int estimateOrdered(Object value) {
+        if (value instanceof String) {
+            return 2 + ((String) value).length() * 3;
+        }
+        if (value instanceof byte[]) {
+            return 2 + ((byte[]) value).length * 8 / 7 + 1;
+        }
+        return 1 + Bytes.SIZEOF_LONG;
+    }
+}
@@ -0,0 +1,343 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ClassName: RowKeyPlanner
+ * Package: hbase
+ * Description: 从Condition中识别行键前缀、集合、范围和模糊匹配，转换为有界的多段扫描范围
+ * 执行时只扫描与这些范围相交的Region，Region内用MultiRowRangeFilter跳过范围之间的行
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 14:10
+ * @Version 1.0
+ */
+public class RowKeyPlanner {
+
+    private RowKeyPlanner() {
+    }
+
+    // 行键范围[startRow, stopRow)，空数组表示不限
+    public static class KeyRange {
+        private final byte[] startRow;
+        private final byte[] stopRow;
+
+        public KeyRange(byte[] startRow, byte[] stopRow) {
+            this.startRow = startRow;
+            this.stopRow = stopRow;
+        }
+
+        public byte[] getStartRow() {
+            return startRow;
+        }
+
+        public byte[] getStopRow() {
+            return stopRow;
+        }
+
+        boolean isEmpty() {
+            return stopRow.length != 0 && Bytes.compareTo(startRow, stopRow) >= 0;
+        }
+
+        MultiRowRangeFilter.RowRange toRowRange() {
+            return new MultiRowRangeFilter.RowRange(startRow, true, stopRow, false);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + Bytes.toStringBinary(startRow) + ", " + Bytes.toStringBinary(stopRow) + ")";
+        }
+    }
+
+    // 一次执行的统计
+    public static class Report {
+        private int ranges;
+        private int totalRegions;
+        private int scannedRegions;
+        private long rowsScanned;
+        private long rowsFiltered;
+        private long rowsReturned;
+
+        public int getRanges() {
+            return ranges;
+        }
+
+        public int getTotalRegions() {
+            return totalRegions;
+        }
+
+        public int getScannedRegions() {
+            return scannedRegions;
+        }
+
+        // 没有发出任何请求的Region数
+        public int getSkippedRegions() {
+            return totalRegions - scannedRegions;
+        }
+
+        // RegionServer读取的行数
+        public long getRowsScanned() {
+            return rowsScanned;
+        }
+
+        // RegionServer读取后被过滤掉的行数
+        public long getRowsFiltered() {
+            return rowsFiltered;
+        }
+
+        public long getRowsReturned() {
+            return rowsReturned;
+        }
+
+        @Override
+        public String toString() {
+            return "ranges=" + ranges + ", regions=" + scannedRegions + "/" + totalRegions
+                    + " (skipped " + getSkippedRegions() + "), rowsScanned=" + rowsScanned
+                    + ", rowsFiltered=" + rowsFiltered + ", rowsReturned=" + rowsReturned;
+        }
+    }
+
+    /**
+     * 条件能匹配到的行键范围，已排序合并；返回null表示无法限定行键（需要全表扫描）
+     */
+    public static List<KeyRange> keyRanges(Condition condition) {
+        if (condition == null || condition instanceof Condition.ColumnCondition) {
+            return null;
+        }
+        if (condition instanceof Condition.RowPrefix) {
+            byte[] prefix = ((Condition.RowPrefix) condition).getPrefix();
+            return Collections.singletonList(new KeyRange(prefix, Condition.prefixStopRow(prefix)));
+        }
+        if (condition instanceof Condition.RowRange) {
+            Condition.RowRange range = (Condition.RowRange) condition;
+            return normalize(Collections.singletonList(new KeyRange(range.getStartRow(), range.getStopRow())));
+        }
+        if (condition instanceof Condition.RowIn) {
+            List<KeyRange> ranges = new ArrayList<>();
+            for (byte[] rowKey : ((Condition.RowIn) condition).getRowKeys()) {
+                // 单个行键：[key, key + 0x00)
+                ranges.add(new KeyRange(rowKey, Arrays.copyOf(rowKey, rowKey.length + 1)));
+            }
+            return normalize(ranges);
+        }
+        if (condition instanceof Condition.RowFuzzy) {
+            byte[] prefix = ((Condition.RowFuzzy) condition).getFixedPrefix();
+            return prefix.length == 0 ? null
+                    : Collections.singletonList(new KeyRange(prefix, Condition.prefixStopRow(prefix)));
+        }
+        if (condition instanceof Condition.And) {
+            List<KeyRange> result = null;
+            for (Condition child : ((Condition.And) condition).getChildren()) {
+                List<KeyRange> childRanges = keyRanges(child);
+                if (childRanges != null) {
+                    result = result == null ? childRanges : intersect(result, childRanges);
+                }
+            }
+            return result;
+        }
+        if (condition instanceof Condition.Or) {
+            List<KeyRange> result = new ArrayList<>();
+            for (Condition child : ((Condition.Or) condition).getChildren()) {
+                List<KeyRange> childRanges = keyRanges(child);
+                if (childRanges == null) {
+                    return null;
+                }
+                result.addAll(childRanges);
+            }
+            return normalize(result);
+        }
+        return null;
+    }
+
+    // 只由行键前缀/范围/集合组成的条件，keyRanges与之完全等价，不需要再作为Filter执行
+    static boolean isExactRowKeyCondition(Condition condition) {
+        if (condition instanceof Condition.RowPrefix || condition instanceof Condition.RowRange
+                || condition instanceof Condition.RowIn) {
+            return true;
+        }
+        List<Condition> children;
+        if (condition instanceof Condition.And) {
+            children = ((Condition.And) condition).getChildren();
+        } else if (condition instanceof Condition.Or) {
+            children = ((Condition.Or) condition).getChildren();
+        } else {
+            return false;
+        }
+        for (Condition child : children) {
+            if (!isExactRowKeyCondition(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 去掉与行键范围等价的条件后剩下的Filter，没有时返回null
+    static Filter residualFilter(Condition condition) {
+        List<Filter> filters = new ArrayList<>();
+        for (Condition conjunct : FilterQuery.conjuncts(condition)) {
+            if (!isExactRowKeyCondition(conjunct)) {
+                filters.add(conjunct.toFilter());
+            }
+        }
+        if (filters.isEmpty()) {
+            return null;
+        }
+        return filters.size() == 1 ? filters.get(0) : new FilterList(FilterList.Operator.MUST_PASS_ALL, filters);
+    }
+
+    /**
+     * 按行键范围执行查询，只扫描相交的Region，结果按行键顺序交给sink
+     * 查询的limit对所有Region合计生效，每个Region只请求剩余的行数，够数后不再扫描后面的Region
+     */
+    public static Report scan(Connection connection, String namespace, String tableName,
+                              FilterQuery query, RowSink sink) throws IOException {
+        TableName tn = TableName.valueOf(namespace, tableName);
+        Condition where = query.getWhere();
+        List<KeyRange> ranges = keyRanges(where);
+        if (ranges == null) {
+            ranges = Collections.singletonList(new KeyRange(new byte[0], new byte[0]));
+        }
+        Filter residual = residualFilter(where);
+        Scan template = query.toScan();
+        int limit = template.getLimit();
+
+        Report report = new Report();
+        report.ranges = ranges.size();
+        List<KeyRange> regions = new ArrayList<>();
+        try (RegionLocator regionLocator = connection.getRegionLocator(tn)) {
+            Pair<byte[][], byte[][]> keys = regionLocator.getStartEndKeys();
+            for (int i = 0; i < keys.getFirst().length; i++) {
+                regions.add(new KeyRange(keys.getFirst()[i], keys.getSecond()[i]));
+            }
+        }
+        report.totalRegions = regions.size();
+
+        try (Table table = connection.getTable(tn)) {
+            for (KeyRange region : regions) {
+                if (limit > 0 && report.rowsReturned >= limit) {
+                    break;
+                }
+                List<KeyRange> inRegion = intersect(ranges, Collections.singletonList(region));
+                if (inRegion.isEmpty()) {
+                    continue;
+                }
+                report.scannedRegions++;
+                Scan scan = new Scan(template);
+                scan.withStartRow(inRegion.get(0).getStartRow(), true)
+                        .withStopRow(inRegion.get(inRegion.size() - 1).getStopRow(), false);
+                scan.setScanMetricsEnabled(true);
+                if (limit > 0) {
+                    scan.setLimit((int) (limit - report.rowsReturned));
+                }
+                List<Filter> filters = new ArrayList<>();
+                if (inRegion.size() > 1) {
+                    List<MultiRowRangeFilter.RowRange> rowRanges = new ArrayList<>(inRegion.size());
+                    for (KeyRange range : inRegion) {
+                        rowRanges.add(range.toRowRange());
+                    }
+                    filters.add(new MultiRowRangeFilter(rowRanges));
+                }
+                if (residual != null) {
+                    filters.add(residual);
+                }
+                scan.setFilter(filters.isEmpty() ? null
+                        : filters.size() == 1 ? filters.get(0)
+                        : new FilterList(FilterList.Operator.MUST_PASS_ALL, filters));
+                ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_SCAN, tn);
+                long rows = 0;
+                long cells = 0;
+                try (ResultScanner resultScanner = table.getScanner(scan)) {
+                    for (Result result : resultScanner) {
+                        RowSink.accept(result, sink);
+                        report.rowsReturned++;
+                        rows++;
+                        cells += result.size();
+                    }
+                    ScanMetrics scanMetrics = resultScanner.getScanMetrics();
+                    if (scanMetrics != null) {
+                        report.rowsScanned += scanMetrics.countOfRowsScanned.get();
+                        report.rowsFiltered += scanMetrics.countOfRowsFiltered.get();
+                    }
+                    timer.success(scanMetrics, rows, cells);
+                } catch (IOException | RuntimeException e) {
+                    timer.failure(e);
+                    throw e;
+                }
+            }
+        }
+        return report;
+    }
+
+    // 排序并合并重叠或相邻的范围
+    static List<KeyRange> normalize(List<KeyRange> ranges) {
+        List<KeyRange> sorted = new ArrayList<>();
+        for (KeyRange range : ranges) {
+            if (!range.isEmpty()) {
+                sorted.add(range);
+            }
+        }
+        sorted.sort((a, b) -> Bytes.compareTo(a.getStartRow(), b.getStartRow()));
+        List<KeyRange> merged = new ArrayList<>();
+        for (KeyRange range : sorted) {
+            if (!merged.isEmpty()) {
+                KeyRange last = merged.get(merged.size() - 1);
+                if (last.getStopRow().length == 0 || Bytes.compareTo(range.getStartRow(), last.getStopRow()) <= 0) {
+                    merged.set(merged.size() - 1, new KeyRange(last.getStartRow(), maxStop(last.getStopRow(), range.getStopRow())));
+                    continue;
+                }
+            }
+            merged.add(range);
+        }
+        return merged;
+    }
+
+    // 两组已合并范围的交集
+    static List<KeyRange> intersect(List<KeyRange> a, List<KeyRange> b) {
+        List<KeyRange> result = new ArrayList<>();
+        for (KeyRange x : a) {
+            for (KeyRange y : b) {
+                byte[] start = Bytes.compareTo(x.getStartRow(), y.getStartRow()) >= 0 ? x.getStartRow() : y.getStartRow();
+                KeyRange range = new KeyRange(start, minStop(x.getStopRow(), y.getStopRow()));
+                if (!range.isEmpty()) {
+                    result.add(range);
+                }
+            }
+        }
+        return normalize(result);
+    }
+
+    private static byte[] minStop(byte[] a, byte[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        return Bytes.compareTo(a, b) <= 0 ? a : b;
+    }
+
+    private static byte[] maxStop(byte[] a, byte[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return new byte[0];
+        }
+        return Bytes.compareTo(a, b) >= 0 ? a : b;
+    }
+}
@@ -0,0 +1,62 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ClassName: RowResult
+ * Package: hbase
+ * Description: 批量查询中单个行键的结果，要么是Cell列表，要么是异常
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 11:40
+ * @Version 1.0
+ */
+public class RowResult {
+    private final String rowKey;
+    private final List<Cell> cells;
+    private final Throwable error;
+
+    private RowResult(String rowKey, List<Cell> cells, Throwable error) {
+        this.rowKey = rowKey;
+        this.cells = cells;
+        this.error = error;
+    }
+
+    public static RowResult success(String rowKey, List<Cell> cells) {
+        return new RowResult(rowKey, cells == null ? Collections.<Cell>emptyList() : cells, null);
+    }
+
+    public static RowResult failure(String rowKey, Throwable error) {
+        return new RowResult(rowKey, Collections.<Cell>emptyList(), error);
+    }
+
+    public String getRowKey() {
+        return rowKey;
+    }
+
+    // 查询失败时为空列表
+    public List<Cell> getCells() {
+        return cells;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    // 查询成功但行不存在
+    public boolean isEmpty() {
+        return error == null && cells.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return rowKey + (isSuccess() ? ":" + cells.size() + " cells" : ":" + error);
+    }
+}
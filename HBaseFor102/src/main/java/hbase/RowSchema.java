@@ -0,0 +1,306 @@
+package hbase;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ClassName: RowSchema
+ * Package: hbase
+ * Description: POJO字段到行键、列族和列的映射，代替所有值都用Bytes.toBytes(String)的方式
+ * 行键由一个或多个字段按OrderedBytes编码拼接，字节序与字段值的自然顺序一致，可以按前缀和范围扫描
+ * 列值按定长二进制编码（与Bytes.toBytes(int/long/...)兼容，Condition和Aggregator可以直接使用），
+ * 也可以把所有非行键字段打包到一个单元格，减少每个Cell重复的行键、列族、列和时间戳
+ * schema创建后不可变，可以在线程间共用；编码解码用newCodec()得到的RowCodec，每个线程一个
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 23:50
+ * @Version 1.0
+ */
+public class RowSchema<T> {
+
+    // 支持的字段类型，包括对应的包装类型
+    enum FieldType {
+        INT(Bytes.SIZEOF_INT),
+        LONG(Bytes.SIZEOF_LONG),
+        SHORT(Bytes.SIZEOF_SHORT),
+        DOUBLE(Bytes.SIZEOF_DOUBLE),
+        FLOAT(Bytes.SIZEOF_FLOAT),
+        BOOLEAN(1),
+        STRING(-1),
+        BYTES(-1);
+
+        // 定长类型的字节数，变长为-1
+        private final int width;
+
+        FieldType(int width) {
+            this.width = width;
+        }
+
+        int getWidth() {
+            return width;
+        }
+
+        static FieldType of(Class<?> type) {
+            if (type == int.class || type == Integer.class) {
+                return INT;
+            }
+            if (type == long.class || type == Long.class) {
+                return LONG;
+            }
+            if (type == short.class || type == Short.class) {
+                return SHORT;
+            }
+            if (type == double.class || type == Double.class) {
+                return DOUBLE;
+            }
+            if (type == float.class || type == Float.class) {
+                return FLOAT;
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return BOOLEAN;
+            }
+            if (type == String.class) {
+                return STRING;
+            }
+            if (type == byte[].class) {
+                return BYTES;
+            }
+            throw new IllegalArgumentException("不支持的字段类型：" + type.getName());
+        }
+    }
+
+    // 一个字段的映射，行键字段的family和qualifier为null
+    static final class FieldMapping {
+        private final Field field;
+        private final FieldType type;
+        private final byte[] family;
+        private final byte[] qualifier;
+
+        FieldMapping(Field field, byte[] family, byte[] qualifier) {
+            this.field = field;
+            this.type = FieldType.of(field.getType());
+            this.family = family;
+            this.qualifier = qualifier;
+        }
+
+        Field getField() {
+            return field;
+        }
+
+        FieldType getType() {
+            return type;
+        }
+
+        byte[] getFamily() {
+            return family;
+        }
+
+        byte[] getQualifier() {
+            return qualifier;
+        }
+
+        Object get(Object target) {
+            try {
+                return field.get(target);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // 基本类型字段不能设置为null，保持默认值
+        void set(Object target, Object value) {
+            if (value == null && field.getType().isPrimitive()) {
+                return;
+            }
+            try {
+                field.set(target, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private final Class<T> type;
+    private final Constructor<T> constructor;
+    private final List<FieldMapping> keyFields;
+    private final List<FieldMapping> valueFields;
+    // 打包模式下所有非行键字段写入的单元格，不打包时为null
+    private final byte[] packedFamily;
+    private final byte[] packedQualifier;
+    private final List<String> families;
+
+    private RowSchema(Builder<T> builder) {
+        this.type = builder.type;
+        this.constructor = builder.constructor;
+        this.keyFields = Collections.unmodifiableList(new ArrayList<>(builder.keyFields));
+        this.valueFields = Collections.unmodifiableList(new ArrayList<>(builder.valueFields));
+        this.packedFamily = builder.packedFamily;
+        this.packedQualifier = builder.packedQualifier;
+        Set<String> families = new LinkedHashSet<>();
+        if (packedFamily != null) {
+            families.add(Bytes.toString(packedFamily));
+        }
+        for (FieldMapping mapping : valueFields) {
+            if (mapping.family != null) {
+                families.add(Bytes.toString(mapping.family));
+            }
+        }
+        this.families = Collections.unmodifiableList(new ArrayList<>(families));
+    }
+
+    // type需要无参构造方法，字段不能是static或transient
+    public static <T> Builder<T> builder(Class<T> type) {
+        return new Builder<>(type);
+    }
+
+    public static class Builder<T> {
+        private final Class<T> type;
+        private final Constructor<T> constructor;
+        private final List<FieldMapping> keyFields = new ArrayList<>();
+        private final List<FieldMapping> valueFields = new ArrayList<>();
+        private final Set<String> mapped = new LinkedHashSet<>();
+        private byte[] packedFamily;
+        private byte[] packedQualifier;
+
+        private Builder(Class<T> type) {
+            this.type = type;
+            try {
+                this.constructor = type.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type.getName() + "没有无参构造方法");
+            }
+        }
+
+        // 行键字段，按顺序拼接，前面的字段决定排序的优先级
+        public Builder<T> key(String... fieldNames) {
+            for (String fieldName : fieldNames) {
+                keyFields.add(new FieldMapping(field(fieldName), null, null));
+            }
+            return this;
+        }
+
+        // 字段写入cf:cl
+        public Builder<T> column(String fieldName, String cf, String cl) {
+            valueFields.add(new FieldMapping(field(fieldName), Bytes.toBytes(cf), Bytes.toBytes(cl)));
+            return this;
+        }
+
+        // 其余还没有映射的字段写入cf，列名为字段名
+        public Builder<T> columns(String cf) {
+            for (Field field : allFields()) {
+                if (!mapped.contains(field.getName())) {
+                    column(field.getName(), cf, field.getName());
+                }
+            }
+            return this;
+        }
+
+        // 所有非行键字段打包写入cf:cl一个单元格，没有用column映射的字段自动加入
+        public Builder<T> packed(String cf, String cl) {
+            this.packedFamily = Bytes.toBytes(cf);
+            this.packedQualifier = Bytes.toBytes(cl);
+            return this;
+        }
+
+        public RowSchema<T> build() {
+            if (keyFields.isEmpty()) {
+                throw new IllegalArgumentException("至少指定一个行键字段");
+            }
+            if (packedFamily != null) {
+                // 打包时字段只按顺序编码，不需要列名
+                List<FieldMapping> packedFields = new ArrayList<>();
+                for (FieldMapping mapping : valueFields) {
+                    packedFields.add(new FieldMapping(mapping.field, null, null));
+                }
+                for (Field field : allFields()) {
+                    if (!mapped.contains(field.getName())) {
+                        mapped.add(field.getName());
+                        packedFields.add(new FieldMapping(field, null, null));
+                    }
+                }
+                valueFields.clear();
+                valueFields.addAll(packedFields);
+            } else if (valueFields.isEmpty()) {
+                throw new IllegalArgumentException("至少指定一个列，或使用columns/packed");
+            }
+            return new RowSchema<>(this);
+        }
+
+        private Field field(String fieldName) {
+            if (!mapped.add(fieldName)) {
+                throw new IllegalArgumentException("字段重复映射：" + fieldName);
+            }
+            for (Field field : allFields()) {
+                if (field.getName().equals(fieldName)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException(type.getName() + "没有字段：" + fieldName);
+        }
+
+        private List<Field> allFields() {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            return fields;
+        }
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    // 建表需要的列族
+    public List<String> getFamilies() {
+        return families;
+    }
+
+    public boolean isPacked() {
+        return packedFamily != null;
+    }
+
+    public RowCodec<T> newCodec() {
+        return new RowCodec<>(this);
+    }
+
+    List<FieldMapping> getKeyFields() {
+        return keyFields;
+    }
+
+    List<FieldMapping> getValueFields() {
+        return valueFields;
+    }
+
+    byte[] getPackedFamily() {
+        return packedFamily;
+    }
+
+    byte[] getPackedQualifier() {
+        return packedQualifier;
+    }
+
+    T newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建" + type.getName() + "失败", e);
+        }
+    }
+}
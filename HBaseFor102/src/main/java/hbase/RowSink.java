@@ -0,0 +1,45 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+
+import java.io.IOException;
+
+/**
+ * ClassName: RowSink
+ * Package: hbase
+ * Description: 逐行逐Cell消费查询结果的回调，替代CellUtil.clone* + 字符串拼接
+ * 行键通过(array, offset, length)传入，Cell的各部分通过getXxxArray/getXxxOffset/getXxxLength读取，都不会复制
+ * 回调返回后这些数组可能被复用，需要保留时自行复制
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 12:50
+ * @Version 1.0
+ */
+public interface RowSink {
+
+    void startRow(byte[] row, int offset, int length) throws IOException;
+
+    void cell(Cell cell) throws IOException;
+
+    void endRow() throws IOException;
+
+    // 把一个Result交给sink，不创建Cell列表
+    static void accept(Result result, RowSink sink) throws IOException {
+        Cell[] cells = result.rawCells();
+        if (cells == null || cells.length == 0) {
+            return;
+        }
+        Cell first = cells[0];
+        sink.startRow(first.getRowArray(), first.getRowOffset(), first.getRowLength());
+        for (Cell cell : cells) {
+            sink.cell(cell);
+        }
+        sink.endRow();
+    }
+
+    // 转换为ParallelScanner的回调
+    static ParallelScanner.ResultHandler asHandler(RowSink sink) {
+        return result -> accept(result, sink);
+    }
+}
@@ -0,0 +1,247 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ClassName: RowSinks
+ * Package: hbase
+ * Description: 常用的RowSink实现：计数、打印、CSV输出、收集
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 13:00
+ * @Version 1.0
+ */
+public class RowSinks {
+
+    private RowSinks() {
+    }
+
+    public static CountingSink counting() {
+        return new CountingSink();
+    }
+
+    // 与原来HBaseUtils的打印格式一致：row:family:qualifier:value
+    public static RowSink printing(PrintStream out) {
+        return new PrintingSink(out);
+    }
+
+    // 输出每个版本的时间戳和类型，用于多版本和raw读取
+    public static RowSink history(PrintStream out) {
+        return new HistorySink(out);
+    }
+
+    public static CsvSink csv(OutputStream out) {
+        return new CsvSink(out);
+    }
+
+    public static CollectingSink collecting() {
+        return new CollectingSink();
+    }
+
+    // 统计行数、Cell数和字节数
+    public static class CountingSink implements RowSink {
+        private long rows;
+        private long cells;
+        private long bytes;
+
+        @Override
+        public void startRow(byte[] row, int offset, int length) {
+            rows++;
+        }
+
+        @Override
+        public void cell(Cell cell) {
+            cells++;
+            bytes += cell.getRowLength() + cell.getFamilyLength() + cell.getQualifierLength() + cell.getValueLength();
+        }
+
+        @Override
+        public void endRow() {
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getCells() {
+            return cells;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private static class PrintingSink implements RowSink {
+        private final PrintStream out;
+
+        PrintingSink(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void startRow(byte[] row, int offset, int length) {
+        }
+
+        @Override
+        public void cell(Cell cell) {
+            out.write(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength());
+            out.write(':');
+            out.write(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+            out.write(':');
+            out.write(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+            out.write(':');
+            out.write(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            out.println();
+        }
+
+        @Override
+        public void endRow() {
+            out.println("--------------------");
+        }
+    }
+
+    // 格式 row:family:qualifier@timestamp(Type)=value，与hbase shell的raw scan相近
+    private static class HistorySink implements RowSink {
+        private final PrintStream out;
+
+        HistorySink(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void startRow(byte[] row, int offset, int length) {
+        }
+
+        @Override
+        public void cell(Cell cell) {
+            out.write(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength());
+            out.write(':');
+            out.write(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+            out.write(':');
+            out.write(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+            out.print("@" + cell.getTimestamp() + "(" + cell.getType() + ")=");
+            out.write(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            out.println();
+        }
+
+        @Override
+        public void endRow() {
+            out.println("--------------------");
+        }
+    }
+
+    /**
+     * 每个Cell输出一行：row,family,qualifier,value
+     * 字段包含逗号、引号或换行时按RFC 4180加引号；字节原样输出，不做字符集转换
+     * 使用完需要close或flush
+     */
+    public static class CsvSink implements RowSink, Flushable, Closeable {
+        private final OutputStream out;
+
+        CsvSink(OutputStream out) {
+            this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, 64 * 1024);
+        }
+
+        @Override
+        public void startRow(byte[] row, int offset, int length) {
+        }
+
+        @Override
+        public void cell(Cell cell) throws IOException {
+            writeField(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength());
+            out.write(',');
+            writeField(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+            out.write(',');
+            writeField(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+            out.write(',');
+            writeField(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            out.write('\n');
+        }
+
+        @Override
+        public void endRow() {
+        }
+
+        private void writeField(byte[] array, int offset, int length) throws IOException {
+            if (!needsQuote(array, offset, length)) {
+                out.write(array, offset, length);
+                return;
+            }
+            out.write('"');
+            int start = offset;
+            for (int i = offset; i < offset + length; i++) {
+                if (array[i] == '"') {
+                    // 引号转义为两个引号
+                    out.write(array, start, i - start + 1);
+                    out.write('"');
+                    start = i + 1;
+                }
+            }
+            out.write(array, start, offset + length - start);
+            out.write('"');
+        }
+
+        private static boolean needsQuote(byte[] array, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                byte b = array[i];
+                if (b == ',' || b == '"' || b == '\n' || b == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // 收集每一行的Cell，只适合小结果集
+    public static class CollectingSink implements RowSink {
+        private final List<List<Cell>> rows = new ArrayList<>();
+        private List<Cell> current;
+
+        @Override
+        public void startRow(byte[] row, int offset, int length) {
+            current = new ArrayList<>();
+        }
+
+        @Override
+        public void cell(Cell cell) {
+            // Result中的Cell不会被复用，这里直接保留引用
+            current.add(cell);
+        }
+
+        @Override
+        public void endRow() {
+            rows.add(current);
+            current = null;
+        }
+
+        public List<List<Cell>> getRows() {
+            return rows;
+        }
+
+        // 第i行的行键
+        public byte[] getRowKey(int i) {
+            return CellUtil.cloneRow(rows.get(i).get(0));
+        }
+    }
+}
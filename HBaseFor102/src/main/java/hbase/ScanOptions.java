@@ -0,0 +1,186 @@
+package hbase;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ClassName: ScanOptions
+ * Package: hbase
+ * Description: Scan调优参数：caching、batch、maxResultSize、cacheBlocks、readType以及列投影
+ * 未设置的参数保持Scan的默认值
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 12:00
+ * @Version 1.0
+ */
+public class ScanOptions {
+
+    private Integer caching;
+    private Integer batch;
+    private Long maxResultSize;
+    private Boolean cacheBlocks;
+    private Scan.ReadType readType;
+    private Integer limit;
+    // 列族 -> 列，列为空表示整个列族
+    private final Map<String, List<String>> columns = new LinkedHashMap<>();
+
+    // 不做任何调整
+    public static ScanOptions defaults() {
+        return new ScanOptions();
+    }
+
+    // 大范围导出：每次RPC多取行，不污染BlockCache，顺序读
+    public static ScanOptions bulkExport() {
+        return new ScanOptions()
+                .caching(1000)
+                .maxResultSize(8L * 1024 * 1024)
+                .cacheBlocks(false)
+                .readType(Scan.ReadType.STREAM);
+    }
+
+    // 交互式分页：一页一次RPC，随机读，保留BlockCache
+    public static ScanOptions interactivePaging(int pageSize) {
+        return new ScanOptions()
+                .caching(pageSize)
+                .limit(pageSize)
+                .maxResultSize(2L * 1024 * 1024)
+                .cacheBlocks(true)
+                .readType(Scan.ReadType.PREAD);
+    }
+
+    // 按名称获取预设：bulk-export、interactive-paging、default
+    public static ScanOptions profile(String name) {
+        if (name == null || name.trim().isEmpty() || "default".equals(name)) {
+            return defaults();
+        }
+        switch (name) {
+            case "bulk-export":
+                return bulkExport();
+            case "interactive-paging":
+                return interactivePaging(100);
+            default:
+                throw new IllegalArgumentException("未知的Scan预设：" + name);
+        }
+    }
+
+    // 每次RPC返回的行数
+    public ScanOptions caching(int caching) {
+        this.caching = caching;
+        return this;
+    }
+
+    // 每个Result最多包含的Cell数，用于宽行
+    public ScanOptions batch(int batch) {
+        this.batch = batch;
+        return this;
+    }
+
+    // 每次RPC返回的最大字节数
+    public ScanOptions maxResultSize(long maxResultSize) {
+        this.maxResultSize = maxResultSize;
+        return this;
+    }
+
+    // 是否把读到的Block放入RegionServer的BlockCache
+    public ScanOptions cacheBlocks(boolean cacheBlocks) {
+        this.cacheBlocks = cacheBlocks;
+        return this;
+    }
+
+    public ScanOptions readType(Scan.ReadType readType) {
+        this.readType = readType;
+        return this;
+    }
+
+    // 最多返回的行数
+    public ScanOptions limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    // 只读取整个列族
+    public ScanOptions addFamily(String cf) {
+        columns.put(cf, new ArrayList<String>());
+        return this;
+    }
+
+    // 只读取指定列
+    public ScanOptions addColumn(String cf, String cl) {
+        List<String> cls = columns.get(cf);
+        if (cls == null) {
+            cls = new ArrayList<>();
+            columns.put(cf, cls);
+        } else if (cls.isEmpty()) {
+            // 已经读取整个列族
+            return this;
+        }
+        cls.add(cl);
+        return this;
+    }
+
+    public Integer getCaching() {
+        return caching;
+    }
+
+    public Integer getBatch() {
+        return batch;
+    }
+
+    public Long getMaxResultSize() {
+        return maxResultSize;
+    }
+
+    public Boolean getCacheBlocks() {
+        return cacheBlocks;
+    }
+
+    public Scan.ReadType getReadType() {
+        return readType;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public Map<String, List<String>> getColumns() {
+        return columns;
+    }
+
+    // 把参数应用到Scan上
+    public Scan apply(Scan scan) {
+        if (caching != null) {
+            scan.setCaching(caching);
+        }
+        if (batch != null) {
+            scan.setBatch(batch);
+        }
+        if (maxResultSize != null) {
+            scan.setMaxResultSize(maxResultSize);
+        }
+        if (cacheBlocks != null) {
+            scan.setCacheBlocks(cacheBlocks);
+        }
+        if (readType != null) {
+            scan.setReadType(readType);
+        }
+        if (limit != null) {
+            scan.setLimit(limit);
+        }
+        for (Map.Entry<String, List<String>> entry : columns.entrySet()) {
+            byte[] family = Bytes.toBytes(entry.getKey());
+            if (entry.getValue().isEmpty()) {
+                scan.addFamily(family);
+            } else {
+                for (String cl : entry.getValue()) {
+                    scan.addColumn(family, Bytes.toBytes(cl));
+                }
+            }
+        }
+        return scan;
+    }
+}
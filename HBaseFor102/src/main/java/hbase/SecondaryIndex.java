@@ -0,0 +1,740 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.AsyncConnection;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: SecondaryIndex
+ * Package: hbase
+ * Description: 客户端维护的二级索引：索引表的行键为 列值 + 0x00 + 数据行键，按值查询变成索引表上的短范围扫描加批量get
+ * register之后，HBaseUtils.putData/deleteData/incrementData先读旧值，写数据前写新索引，写数据后删除旧索引；
+ * BatchWriter、CounterBatcher和AsyncHBaseUtils只追加新值的索引，不读旧值；AsyncHBaseUtils按任一连接上注册的索引维护
+ * BulkLoader、BulkDeleter以及其他连接上的同步写入不维护索引（第一次遇到时打印提示）：
+ * 批量导入之后必须rebuild()，否则导入的行查不到；删除留下的过期条目在查询时被过滤，由check(true)清理
+ * 数据和索引不是原子写入的，查询时用数据表中的当前值校验，过期的索引条目被忽略，check(true)负责清理和补齐
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 22:50
+ * @Version 1.0
+ */
+public class SecondaryIndex {
+
+    public static final String INDEX_FAMILY = "i";
+    // 索引条目中保存数据行键的列
+    public static final String ROW_QUALIFIER = "r";
+    public static final int DEFAULT_PARALLELISM = 4;
+    private static final byte SEPARATOR = 0x00;
+    private static final int CHECK_BATCH_SIZE = 1000;
+    private static final byte[] FAMILY_BYTES = Bytes.toBytes(INDEX_FAMILY);
+    private static final byte[] QUALIFIER_BYTES = Bytes.toBytes(ROW_QUALIFIER);
+
+    // 每个连接上注册的索引，按数据表分组
+    private static final Map<Connection, Map<TableName, List<SecondaryIndex>>> REGISTRY = new ConcurrentHashMap<>();
+    // 已经提示过不维护索引的 表 + 写入路径
+    private static final Set<String> WARNED = ConcurrentHashMap.newKeySet();
+
+    // 重建索引的统计
+    public static class RebuildReport {
+        private final AtomicLong rows = new AtomicLong();
+        private int regions;
+        private long millis;
+
+        // 写入的索引条目数
+        public long getRows() {
+            return rows.get();
+        }
+
+        public int getRegions() {
+            return regions;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return "rows=" + rows + ", regions=" + regions + ", millis=" + millis;
+        }
+    }
+
+    // 一致性检查的统计
+    public static class CheckReport {
+        private final AtomicLong dataRows = new AtomicLong();
+        private final AtomicLong indexEntries = new AtomicLong();
+        private final AtomicLong missing = new AtomicLong();
+        private final AtomicLong stale = new AtomicLong();
+        private final AtomicLong repaired = new AtomicLong();
+        private long millis;
+
+        // 有被索引列的数据行数
+        public long getDataRows() {
+            return dataRows.get();
+        }
+
+        public long getIndexEntries() {
+            return indexEntries.get();
+        }
+
+        // 数据行存在但没有对应索引条目
+        public long getMissing() {
+            return missing.get();
+        }
+
+        // 索引条目指向的行不存在或值已经改变
+        public long getStale() {
+            return stale.get();
+        }
+
+        public long getRepaired() {
+            return repaired.get();
+        }
+
+        public boolean isConsistent() {
+            return missing.get() == 0 && stale.get() == 0;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return "dataRows=" + dataRows + ", indexEntries=" + indexEntries + ", missing=" + missing
+                    + ", stale=" + stale + ", repaired=" + repaired + ", millis=" + millis;
+        }
+    }
+
+    private final Connection connection;
+    private final TableName dataTable;
+    private final TableName indexTable;
+    private final byte[] family;
+    private final byte[] qualifier;
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    private SecondaryIndex(Connection connection, TableName dataTable, TableName indexTable, byte[] family, byte[] qualifier) {
+        this.connection = connection;
+        this.dataTable = dataTable;
+        this.indexTable = indexTable;
+        this.family = family;
+        this.qualifier = qualifier;
+    }
+
+    // 索引表默认为 namespace:table_idx_cf_cl
+    public static SecondaryIndex create(Connection connection, String namespace, String tableName, String cf, String cl) {
+        return create(connection, namespace, tableName, cf, cl, tableName + "_idx_" + cf + "_" + cl);
+    }
+
+    public static SecondaryIndex create(Connection connection, String namespace, String tableName, String cf, String cl,
+                                        String indexTableName) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        if (cf == null || cf.trim().isEmpty()) {
+            throw new IllegalArgumentException("列族不能为空");
+        }
+        if (cl == null || cl.trim().isEmpty()) {
+            throw new IllegalArgumentException("列不能为空");
+        }
+        return new SecondaryIndex(connection, TableName.valueOf(namespace, tableName),
+                TableName.valueOf(namespace, indexTableName), Bytes.toBytes(cf), Bytes.toBytes(cl));
+    }
+
+    // 重建和检查时同时扫描的Region数
+    public SecondaryIndex parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须大于0");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public TableName getDataTable() {
+        return dataTable;
+    }
+
+    public TableName getIndexTable() {
+        return indexTable;
+    }
+
+    // 创建索引表，索引的行键以列值开头，可以用TableOptions.sampleSplits按值预分区
+    public void createIndexTable(TableOptions options) throws Exception {
+        HBaseUtils.createTable(connection, indexTable.getNamespaceAsString(), indexTable.getQualifierAsString(),
+                options, INDEX_FAMILY);
+    }
+
+    // 之后通过HBaseUtils、BatchWriter、CounterBatcher和AsyncHBaseUtils的写入会同时维护索引
+    public SecondaryIndex register() {
+        Map<TableName, List<SecondaryIndex>> tables = REGISTRY.computeIfAbsent(connection, c -> new ConcurrentHashMap<>());
+        List<SecondaryIndex> indexes = tables.computeIfAbsent(dataTable, t -> new CopyOnWriteArrayList<>());
+        synchronized (indexes) {
+            for (SecondaryIndex index : indexes) {
+                if (index.indexTable.equals(indexTable)) {
+                    return index;
+                }
+            }
+            indexes.add(this);
+        }
+        return this;
+    }
+
+    public void unregister() {
+        Map<TableName, List<SecondaryIndex>> tables = REGISTRY.get(connection);
+        if (tables != null && tables.containsKey(dataTable)) {
+            tables.get(dataTable).removeIf(index -> index.indexTable.equals(indexTable));
+        }
+    }
+
+    // 数据表上注册的索引，没有时为空列表
+    static List<SecondaryIndex> forTable(Connection connection, TableName tn) {
+        Map<TableName, List<SecondaryIndex>> tables = connection == null ? null : REGISTRY.get(connection);
+        List<SecondaryIndex> indexes = tables == null ? null : tables.get(tn);
+        return indexes == null ? Collections.<SecondaryIndex>emptyList() : indexes;
+    }
+
+    // 表在任一连接上注册了索引时返回true
+    static boolean isIndexed(TableName tn) {
+        for (Map<TableName, List<SecondaryIndex>> tables : REGISTRY.values()) {
+            List<SecondaryIndex> indexes = tables.get(tn);
+            if (indexes != null && !indexes.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 不维护索引的写入路径调用：表注册了索引时每个路径提示一次
+    static void warnUnindexed(TableName tn, String path, String remedy) {
+        if (isIndexed(tn) && WARNED.add(tn.getNameAsString() + "/" + path)) {
+            System.out.println(tn.getNameAsString() + "注册了二级索引，" + path + "的写入不会维护索引，需要" + remedy);
+        }
+    }
+
+    // 没有读旧值的写入之后，按数据表中的当前值补写索引条目，旧值的条目在查询时被过滤，由check(true)清理
+    static void indexCurrentValues(Connection connection, TableName tn, List<byte[]> rows) throws IOException {
+        List<SecondaryIndex> indexes = forTable(connection, tn);
+        if (indexes.isEmpty() || rows.isEmpty()) {
+            return;
+        }
+        Table data = TableCache.forConnection(connection).getTable(tn);
+        for (int from = 0; from < rows.size(); from += CHECK_BATCH_SIZE) {
+            List<byte[]> chunk = rows.subList(from, Math.min(rows.size(), from + CHECK_BATCH_SIZE));
+            List<Get> gets = new ArrayList<>(chunk.size());
+            for (byte[] row : chunk) {
+                Get get = new Get(row);
+                for (SecondaryIndex index : indexes) {
+                    get.addColumn(index.family, index.qualifier);
+                }
+                gets.add(get);
+            }
+            Result[] results = data.get(gets);
+            for (SecondaryIndex index : indexes) {
+                List<Put> puts = new ArrayList<>();
+                for (Result result : results) {
+                    byte[] value = result.getValue(index.family, index.qualifier);
+                    if (value != null) {
+                        puts.add(index.indexPut(result.getRow(), value));
+                    }
+                }
+                if (!puts.isEmpty()) {
+                    TableCache.forConnection(connection).getTable(index.indexTable).put(puts);
+                }
+            }
+        }
+    }
+
+    // 在任一连接上为数据表注册的索引，同一索引表只返回一次
+    static List<SecondaryIndex> forTable(TableName tn) {
+        Map<TableName, SecondaryIndex> byIndexTable = new LinkedHashMap<>();
+        for (Map<TableName, List<SecondaryIndex>> tables : REGISTRY.values()) {
+            List<SecondaryIndex> indexes = tables.get(tn);
+            if (indexes != null) {
+                for (SecondaryIndex index : indexes) {
+                    byIndexTable.putIfAbsent(index.indexTable, index);
+                }
+            }
+        }
+        return new ArrayList<>(byIndexTable.values());
+    }
+
+    // 异步写入完成之后调用，与同步版本相同：读数据表中的当前值补写索引条目，读写都通过同一个AsyncConnection
+    static CompletableFuture<Void> indexCurrentValues(AsyncConnection connection, TableName tn, List<byte[]> rows) {
+        List<SecondaryIndex> indexes = forTable(tn);
+        if (indexes.isEmpty() || rows.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<Get> gets = new ArrayList<>(rows.size());
+        for (byte[] row : rows) {
+            Get get = new Get(row);
+            for (SecondaryIndex index : indexes) {
+                get.addColumn(index.family, index.qualifier);
+            }
+            gets.add(get);
+        }
+        return connection.getTable(tn).getAll(gets).thenCompose(results -> {
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (SecondaryIndex index : indexes) {
+                List<Put> puts = new ArrayList<>();
+                for (Result result : results) {
+                    byte[] value = result.getValue(index.family, index.qualifier);
+                    if (value != null) {
+                        puts.add(index.indexPut(result.getRow(), value));
+                    }
+                }
+                if (!puts.isEmpty()) {
+                    writes.add(connection.getTable(index.indexTable).putAll(puts));
+                }
+            }
+            return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+        });
+    }
+
+    // 关闭连接时清除注册的索引
+    public static void release(Connection connection) {
+        if (connection != null) {
+            REGISTRY.remove(connection);
+        }
+    }
+
+    // 按值查询数据行键，只读索引表，不校验
+    public List<String> lookupRowKeys(String value) throws IOException {
+        byte[] prefix = Bytes.add(Bytes.toBytes(value), new byte[]{SEPARATOR});
+        List<String> rowKeys = new ArrayList<>();
+        Scan scan = new Scan().setRowPrefixFilter(prefix).addColumn(FAMILY_BYTES, QUALIFIER_BYTES);
+        try (ResultScanner resultScanner = TableCache.forConnection(connection).getTable(indexTable).getScanner(scan)) {
+            for (Result result : resultScanner) {
+                byte[] row = result.getValue(FAMILY_BYTES, QUALIFIER_BYTES);
+                if (row != null) {
+                    rowKeys.add(Bytes.toString(row));
+                }
+            }
+        }
+        return rowKeys;
+    }
+
+    // 按值查询，返回当前值仍然等于value的行，结果全部放在内存中；结果多时用lookup(value, sink)
+    public Map<String, RowResult> lookup(String value) throws IOException {
+        Map<String, RowResult> rows = new LinkedHashMap<>();
+        lookupRange(value, value, true, rows::put);
+        return rows;
+    }
+
+    // 按值范围[fromValue, toValue)查询，toValue为null表示不限，结果全部放在内存中；范围大时用lookupRange(from, to, sink)
+    public Map<String, RowResult> lookupRange(String fromValue, String toValue) throws IOException {
+        Map<String, RowResult> rows = new LinkedHashMap<>();
+        lookupRange(fromValue, toValue, false, rows::put);
+        return rows;
+    }
+
+    // 按值查询，按值和行键的顺序逐行交给sink，返回行数
+    public long lookup(String value, RowSink sink) throws IOException {
+        return lookupRange(value, value, true, streaming(sink));
+    }
+
+    // 按值范围[fromValue, toValue)查询，索引条目每CHECK_BATCH_SIZE个一批读取数据行，内存占用与范围大小无关，返回行数
+    public long lookupRange(String fromValue, String toValue, RowSink sink) throws IOException {
+        return lookupRange(fromValue, toValue, false, streaming(sink));
+    }
+
+    private interface RowHandler {
+        void accept(String rowKey, RowResult row) throws IOException;
+    }
+
+    // 流式查询中读取失败的行直接抛出
+    private static RowHandler streaming(RowSink sink) {
+        return (rowKey, row) -> {
+            if (!row.isSuccess()) {
+                throw row.getError() instanceof IOException ? (IOException) row.getError()
+                        : new IOException("读取数据行失败：" + rowKey, row.getError());
+            }
+            byte[] rowBytes = Bytes.toBytes(rowKey);
+            sink.startRow(rowBytes, 0, rowBytes.length);
+            for (Cell cell : row.getCells()) {
+                sink.cell(cell);
+            }
+            sink.endRow();
+        };
+    }
+
+    private long lookupRange(String fromValue, String toValue, boolean exact, RowHandler handler) throws IOException {
+        byte[] from = Bytes.toBytes(fromValue);
+        byte[] to = toValue == null ? null : Bytes.toBytes(toValue);
+        Scan scan = exact ? new Scan().setRowPrefixFilter(Bytes.add(from, new byte[]{SEPARATOR}))
+                : new Scan().withStartRow(from).withStopRow(to == null ? new byte[0] : to);
+        scan.addColumn(FAMILY_BYTES, QUALIFIER_BYTES).setCaching(CHECK_BATCH_SIZE);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_INDEX_LOOKUP, dataTable);
+        long[] counts = new long[2];
+        // 数据行键到索引条目中的值，一行可能同时有当前值和还没清理的旧值的条目
+        Map<String, List<byte[]>> batch = new LinkedHashMap<>();
+        Table table = TableCache.forConnection(connection).getTable(indexTable);
+        try (ResultScanner resultScanner = table.getScanner(scan)) {
+            for (Result result : resultScanner) {
+                byte[] row = result.getValue(FAMILY_BYTES, QUALIFIER_BYTES);
+                if (row == null) {
+                    continue;
+                }
+                byte[] indexRow = result.getRow();
+                batch.computeIfAbsent(Bytes.toString(row), k -> new ArrayList<>(1))
+                        .add(Bytes.copy(indexRow, 0, indexRow.length - row.length - 1));
+                if (batch.size() >= CHECK_BATCH_SIZE) {
+                    verifyBatch(batch, handler, counts);
+                }
+            }
+            verifyBatch(batch, handler, counts);
+            timer.success(counts[0], counts[1], 0);
+            return counts[0];
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+    }
+
+    // 读取一批数据行，只保留当前值仍然等于索引条目中的值的行；counts为{行数, Cell数}
+    private void verifyBatch(Map<String, List<byte[]>> batch, RowHandler handler, long[] counts) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, RowResult> rows = HBaseUtils.getDataBatch(connection, dataTable.getNamespaceAsString(),
+                dataTable.getQualifierAsString(), batch.keySet());
+        for (Map.Entry<String, RowResult> entry : rows.entrySet()) {
+            RowResult row = entry.getValue();
+            // 失败的行交给调用方处理
+            if (row == null || !row.isSuccess()) {
+                handler.accept(entry.getKey(), row == null ? RowResult.failure(entry.getKey(), null) : row);
+                continue;
+            }
+            byte[] current = currentValue(row.getCells());
+            // 过期的索引条目：行已删除或值已改变
+            if (current == null || !containsValue(batch.get(entry.getKey()), current)) {
+                continue;
+            }
+            handler.accept(entry.getKey(), row);
+            counts[0]++;
+            counts[1] += row.getCells().size();
+        }
+        batch.clear();
+    }
+
+    private static boolean containsValue(List<byte[]> values, byte[] value) {
+        for (byte[] v : values) {
+            if (Bytes.equals(v, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] currentValue(List<Cell> cells) {
+        for (Cell cell : cells) {
+            if (CellUtil.matchingColumn(cell, family, qualifier)) {
+                return CellUtil.cloneValue(cell);
+            }
+        }
+        return null;
+    }
+
+    // 按Region并行扫描数据表，为每行写入索引条目，可以重复执行
+    // 不会删除过期的条目，需要时再运行check(true)
+    public RebuildReport rebuild() throws IOException {
+        long start = System.currentTimeMillis();
+        RebuildReport report = new RebuildReport();
+        Scan template = new Scan().addColumn(family, qualifier).setCaching(CHECK_BATCH_SIZE).setCacheBlocks(false);
+        try (BufferedMutator mutator = connection.getBufferedMutator(indexTable)) {
+            report.regions = forEachSplit(dataTable, template, "index-rebuild-", resultScanner -> {
+                for (Result result : resultScanner) {
+                    Cell cell = result.getColumnLatestCell(family, qualifier);
+                    if (cell != null) {
+                        mutator.mutate(indexPut(result.getRow(), CellUtil.cloneValue(cell)));
+                        report.rows.incrementAndGet();
+                    }
+                }
+            });
+        }
+        report.millis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    /**
+     * 一致性检查：先按Region扫描数据表，确认每行都有索引条目；再扫描索引表，确认每个条目指向的行的当前值
+     * 与条目一致。检查期间仍有写入时，正在写入的行可能被误报，可以再检查一次
+     * @param repair 为true时补齐缺失的条目并删除过期的条目
+     */
+    public CheckReport check(boolean repair) throws IOException {
+        long start = System.currentTimeMillis();
+        CheckReport report = new CheckReport();
+        Table index = TableCache.forConnection(connection).getTable(indexTable);
+        Table data = TableCache.forConnection(connection).getTable(dataTable);
+
+        // 数据 -> 索引
+        Scan dataScan = new Scan().addColumn(family, qualifier).setCaching(CHECK_BATCH_SIZE).setCacheBlocks(false);
+        forEachSplit(dataTable, dataScan, "index-check-", resultScanner -> {
+            List<Put> expected = new ArrayList<>(CHECK_BATCH_SIZE);
+            for (Result result : resultScanner) {
+                Cell cell = result.getColumnLatestCell(family, qualifier);
+                if (cell == null) {
+                    continue;
+                }
+                report.dataRows.incrementAndGet();
+                expected.add(indexPut(result.getRow(), CellUtil.cloneValue(cell)));
+                if (expected.size() >= CHECK_BATCH_SIZE) {
+                    checkMissing(index, expected, repair, report);
+                }
+            }
+            checkMissing(index, expected, repair, report);
+        });
+
+        // 索引 -> 数据
+        Scan indexScan = new Scan().addColumn(FAMILY_BYTES, QUALIFIER_BYTES).setCaching(CHECK_BATCH_SIZE).setCacheBlocks(false);
+        forEachSplit(indexTable, indexScan, "index-check-", resultScanner -> {
+            List<Result> entries = new ArrayList<>(CHECK_BATCH_SIZE);
+            for (Result result : resultScanner) {
+                report.indexEntries.incrementAndGet();
+                entries.add(result);
+                if (entries.size() >= CHECK_BATCH_SIZE) {
+                    checkStale(data, index, entries, repair, report);
+                }
+            }
+            checkStale(data, index, entries, repair, report);
+        });
+        report.millis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    private void checkMissing(Table index, List<Put> expected, boolean repair, CheckReport report) throws IOException {
+        if (expected.isEmpty()) {
+            return;
+        }
+        List<Get> gets = new ArrayList<>(expected.size());
+        for (Put put : expected) {
+            gets.add(new Get(put.getRow()).addColumn(FAMILY_BYTES, QUALIFIER_BYTES));
+        }
+        boolean[] exists = index.exists(gets);
+        List<Put> missing = new ArrayList<>();
+        for (int i = 0; i < exists.length; i++) {
+            if (!exists[i]) {
+                missing.add(expected.get(i));
+            }
+        }
+        report.missing.addAndGet(missing.size());
+        if (repair && !missing.isEmpty()) {
+            index.put(missing);
+            report.repaired.addAndGet(missing.size());
+        }
+        expected.clear();
+    }
+
+    private void checkStale(Table data, Table index, List<Result> entries, boolean repair, CheckReport report) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Get> gets = new ArrayList<>(entries.size());
+        for (Result entry : entries) {
+            gets.add(new Get(entry.getValue(FAMILY_BYTES, QUALIFIER_BYTES)).addColumn(family, qualifier));
+        }
+        Result[] rows = data.get(gets);
+        List<Delete> stale = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            byte[] indexRow = entries.get(i).getRow();
+            byte[] dataRow = gets.get(i).getRow();
+            byte[] current = rows[i].getValue(family, qualifier);
+            if (current == null || !Bytes.equals(indexRow, indexRow(dataRow, current))) {
+                stale.add(new Delete(indexRow));
+            }
+        }
+        report.stale.addAndGet(stale.size());
+        if (repair && !stale.isEmpty()) {
+            // Table.delete会从列表中移除已经成功的Delete，先记下数量
+            int count = stale.size();
+            index.delete(stale);
+            report.repaired.addAndGet(count);
+        }
+        entries.clear();
+    }
+
+    private interface SplitTask {
+        void run(ResultScanner resultScanner) throws IOException;
+    }
+
+    // 按Region切分后并行执行，返回子范围数
+    private int forEachSplit(TableName tn, Scan template, String threadPrefix, SplitTask task) throws IOException {
+        List<ParallelScanner.ScanSplit> splits = ParallelScanner.split(connection, tn, template);
+        if (splits.isEmpty()) {
+            return 0;
+        }
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, splits.size()), r -> {
+            Thread thread = new Thread(r, threadPrefix + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Table table = TableCache.forConnection(connection).getTable(tn);
+        try {
+            List<Future<?>> futures = new ArrayList<>(splits.size());
+            for (ParallelScanner.ScanSplit split : splits) {
+                Scan scan = split.toScan(template);
+                futures.add(executor.submit(() -> {
+                    try (ResultScanner resultScanner = table.getScanner(scan)) {
+                        task.run(resultScanner);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("索引任务被中断");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return splits.size();
+    }
+
+    byte[] indexRow(byte[] dataRow, byte[] value) {
+        return Bytes.add(value, new byte[]{SEPARATOR}, dataRow);
+    }
+
+    // 索引条目总是使用服务端时间戳，不会被之前删除该条目时留下的删除标记遮住
+    Put indexPut(byte[] dataRow, byte[] value) {
+        Put put = new Put(indexRow(dataRow, value));
+        put.addColumn(FAMILY_BYTES, QUALIFIER_BYTES, dataRow);
+        return put;
+    }
+
+    // Put中被索引列的新值，Put不包含该列时返回null
+    byte[] valueOf(Put put) {
+        List<Cell> cells = put.get(family, qualifier);
+        return cells.isEmpty() ? null : CellUtil.cloneValue(cells.get(cells.size() - 1));
+    }
+
+    // 同一行的写入前后维护这一行的所有索引
+    static final class Maintenance {
+        private final Connection connection;
+        private final TableName tn;
+        private final Mutation mutation;
+        private final List<SecondaryIndex> indexes;
+        private final byte[][] oldValues;
+
+        private Maintenance(Connection connection, TableName tn, Mutation mutation, List<SecondaryIndex> indexes,
+                            byte[][] oldValues) {
+            this.connection = connection;
+            this.tn = tn;
+            this.mutation = mutation;
+            this.indexes = indexes;
+            this.oldValues = oldValues;
+        }
+
+        // 写入数据之前：Put的新值先写索引，查询时数据还没写入的条目会被校验过滤掉
+        void beforeWrite() throws IOException {
+            if (!(mutation instanceof Put)) {
+                return;
+            }
+            for (int i = 0; i < indexes.size(); i++) {
+                SecondaryIndex index = indexes.get(i);
+                // 新值等于旧值时也写：并发的删除可能在读旧值之后删掉这个条目，索引条目的Put是幂等的
+                indexTable(index).put(index.indexPut(mutation.getRow(), index.valueOf((Put) mutation)));
+            }
+        }
+
+        // 写入数据之后：删除不再对应的旧条目；Delete之后重新读一次，旧版本重新可见时补上它的条目
+        void afterWrite() throws IOException {
+            byte[][] newValues = new byte[indexes.size()][];
+            if (mutation instanceof Put) {
+                for (int i = 0; i < indexes.size(); i++) {
+                    newValues[i] = indexes.get(i).valueOf((Put) mutation);
+                }
+            } else {
+                newValues = readValues(connection, tn, mutation.getRow(), indexes);
+            }
+            for (int i = 0; i < indexes.size(); i++) {
+                SecondaryIndex index = indexes.get(i);
+                if (Bytes.equals(oldValues[i], newValues[i])) {
+                    continue;
+                }
+                if (oldValues[i] != null) {
+                    indexTable(index).delete(new Delete(index.indexRow(mutation.getRow(), oldValues[i])));
+                }
+                if (!(mutation instanceof Put) && newValues[i] != null) {
+                    indexTable(index).put(index.indexPut(mutation.getRow(), newValues[i]));
+                }
+            }
+        }
+
+        private Table indexTable(SecondaryIndex index) throws IOException {
+            return TableCache.forConnection(connection).getTable(index.indexTable);
+        }
+    }
+
+    // 写入前调用，读取被影响的索引列的旧值；数据表没有注册索引或写入不涉及索引列时返回null
+    static Maintenance prepare(Connection connection, TableName tn, Mutation mutation) throws IOException {
+        List<SecondaryIndex> registered = forTable(connection, tn);
+        if (registered.isEmpty()) {
+            return null;
+        }
+        List<SecondaryIndex> affected = new ArrayList<>();
+        for (SecondaryIndex index : registered) {
+            boolean covers = mutation instanceof Put
+                    ? ((Put) mutation).has(index.family, index.qualifier)
+                    // 整行删除的familyCellMap为空
+                    : mutation.getFamilyCellMap().isEmpty() || mutation.getFamilyCellMap().containsKey(index.family);
+            if (covers) {
+                affected.add(index);
+            }
+        }
+        if (affected.isEmpty()) {
+            return null;
+        }
+        return new Maintenance(connection, tn, mutation, affected, readValues(connection, tn, mutation.getRow(), affected));
+    }
+
+    private static byte[][] readValues(Connection connection, TableName tn, byte[] row, List<SecondaryIndex> indexes)
+            throws IOException {
+        Get get = new Get(row);
+        for (SecondaryIndex index : indexes) {
+            get.addColumn(index.family, index.qualifier);
+        }
+        Result result = TableCache.forConnection(connection).getTable(tn).get(get);
+        byte[][] values = new byte[indexes.size()][];
+        for (int i = 0; i < indexes.size(); i++) {
+            values[i] = result.getValue(indexes.get(i).family, indexes.get(i).qualifier);
+        }
+        return values;
+    }
+}
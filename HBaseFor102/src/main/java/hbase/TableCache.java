@@ -0,0 +1,217 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: TableCache
+ * Package: hbase
+ * Description: 每个Connection一份的句柄缓存，避免每次调用都getTable/getAdmin再关闭
+ * Table不是线程安全的，按线程缓存，线程结束后它的Table在下一次有线程新建Table时关闭；Admin整个连接共用一个，调用时加锁
+ * 表存在、表描述按TTL缓存，DDL之后需要invalidate；表不存在不缓存，建表之后马上可见
+ * 关闭连接前调用release(connection)，由HBaseUtils.closeConnection负责；没有经过release就关闭的连接，
+ * 在下一次forConnection时移除
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 14:40
+ * @Version 1.0
+ */
+public class TableCache implements Closeable {
+
+    // 表是否存在、表描述的默认缓存时间
+    public static final long DEFAULT_TTL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Map<Connection, TableCache> CACHES = new ConcurrentHashMap<>();
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expireAt;
+
+        Entry(V value, long ttlMs) {
+            this.value = value;
+            this.expireAt = System.currentTimeMillis() + ttlMs;
+        }
+
+        boolean expired() {
+            return System.currentTimeMillis() >= expireAt;
+        }
+    }
+
+    private final Connection connection;
+    private final long ttlMs;
+    private final ThreadLocal<Map<TableName, Table>> tables = new ThreadLocal<>();
+    // 各线程创建的Table，线程结束后关闭并移除，关闭缓存时全部释放
+    private final Map<Thread, Map<TableName, Table>> threadTables = new ConcurrentHashMap<>();
+    private final Map<TableName, Entry<Boolean>> existsCache = new ConcurrentHashMap<>();
+    private final Map<TableName, Entry<TableDescriptor>> descriptorCache = new ConcurrentHashMap<>();
+    private Admin admin;
+    private volatile boolean closed;
+
+    private TableCache(Connection connection, long ttlMs) {
+        this.connection = connection;
+        this.ttlMs = ttlMs;
+    }
+
+    // 获取连接对应的缓存，第一次调用时创建
+    public static TableCache forConnection(Connection connection) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        TableCache cache = CACHES.get(connection);
+        if (cache == null) {
+            purgeClosedConnections();
+            cache = CACHES.computeIfAbsent(connection, c -> new TableCache(c, DEFAULT_TTL_MS));
+        }
+        return cache;
+    }
+
+    // 移除已经关闭的连接的缓存
+    private static void purgeClosedConnections() {
+        for (Connection connection : CACHES.keySet()) {
+            if (connection.isClosed()) {
+                release(connection);
+            }
+        }
+    }
+
+    // 关闭并移除连接对应的缓存
+    public static void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        TableCache cache = CACHES.remove(connection);
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    // 当前线程的Table句柄，不要关闭
+    public Table getTable(TableName tn) throws IOException {
+        checkOpen();
+        Map<TableName, Table> current = tables.get();
+        if (current == null) {
+            // 新线程第一次使用时顺便清理已经结束的线程
+            purgeDeadThreads();
+            current = new HashMap<>();
+            tables.set(current);
+            threadTables.put(Thread.currentThread(), current);
+        }
+        Table table = current.get(tn);
+        if (table == null) {
+            table = connection.getTable(tn);
+            current.put(tn, table);
+        }
+        return table;
+    }
+
+    // 线程池每次新建的线程都会创建自己的Table，线程结束后关闭，避免长期运行的进程中句柄不断累积
+    private void purgeDeadThreads() {
+        for (Thread thread : threadTables.keySet()) {
+            if (!thread.isAlive()) {
+                closeTables(threadTables.remove(thread));
+            }
+        }
+    }
+
+    private static void closeTables(Map<TableName, Table> tables) {
+        if (tables == null) {
+            return;
+        }
+        for (Table table : tables.values()) {
+            try {
+                table.close();
+            } catch (IOException e) {
+                System.out.println("关闭Table失败：" + e);
+            }
+        }
+    }
+
+    // 共用的Admin，不要关闭；Admin不是线程安全的，多线程使用时用withAdmin
+    public synchronized Admin getAdmin() throws IOException {
+        checkOpen();
+        if (admin == null) {
+            admin = connection.getAdmin();
+        }
+        return admin;
+    }
+
+    public interface AdminCallable<V> {
+        V call(Admin admin) throws IOException;
+    }
+
+    // 持有锁使用Admin
+    public synchronized <V> V withAdmin(AdminCallable<V> callable) throws IOException {
+        return callable.call(getAdmin());
+    }
+
+    public boolean tableExists(TableName tn) throws IOException {
+        Entry<Boolean> entry = existsCache.get(tn);
+        if (entry == null || entry.expired()) {
+            boolean exists = withAdmin(admin -> admin.tableExists(tn));
+            if (!exists) {
+                existsCache.remove(tn);
+                return false;
+            }
+            entry = new Entry<>(true, ttlMs);
+            existsCache.put(tn, entry);
+        }
+        return entry.value;
+    }
+
+    public TableDescriptor getDescriptor(TableName tn) throws IOException {
+        Entry<TableDescriptor> entry = descriptorCache.get(tn);
+        if (entry == null || entry.expired()) {
+            TableDescriptor descriptor = withAdmin(admin -> admin.getDescriptor(tn));
+            entry = new Entry<>(descriptor, ttlMs);
+            descriptorCache.put(tn, entry);
+        }
+        return entry.value;
+    }
+
+    // 建表、删表、修改表之后调用
+    public void invalidate(TableName tn) {
+        existsCache.remove(tn);
+        descriptorCache.remove(tn);
+    }
+
+    public void invalidateAll() {
+        existsCache.clear();
+        descriptorCache.clear();
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("TableCache已关闭");
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Thread thread : threadTables.keySet()) {
+            closeTables(threadTables.remove(thread));
+        }
+        if (admin != null) {
+            try {
+                admin.close();
+            } catch (IOException e) {
+                System.out.println("关闭Admin失败：" + e);
+            }
+            admin = null;
+        }
+        invalidateAll();
+    }
+}
@@ -0,0 +1,311 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ClassName: TableExporter
+ * Package: hbase
+ * Description: 按Region并行把表或行键范围导出为本地CSV文件，每个子范围一个文件，格式同RowSinks.csv
+ * 文件先写到.inprogress，写完后改名，已经存在的文件在重新运行时跳过，实现断点续导
+ * 子范围记录在_splits中，续导时沿用第一次运行时的切分，不受Region分裂影响
+ * _splits的第一行记录表名、行键范围和文件格式，续导时与本次参数不一致会直接失败，避免把两次不同的导出混在一个目录
+ * 每次运行开始时删除_SUCCESS，全部子范围导出完成后重新写入
+ * 每个线程只持有一次RPC的结果和写缓冲区，内存占用与表的大小无关
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 21:50
+ * @Version 1.0
+ */
+public class TableExporter {
+
+    public static final String SPLITS_FILE = "_splits";
+    public static final String SUCCESS_FILE = "_SUCCESS";
+    public static final int DEFAULT_PARALLELISM = 4;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    // 一次导出的统计
+    public static class Report {
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong cells = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicInteger exported = new AtomicInteger();
+        private int splits;
+        private int skipped;
+        private long millis;
+
+        public long getRows() {
+            return rows.get();
+        }
+
+        public long getCells() {
+            return cells.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        // 本次导出的文件数
+        public int getExported() {
+            return exported.get();
+        }
+
+        public int getSplits() {
+            return splits;
+        }
+
+        // 之前已经完成而跳过的文件数
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return "splits=" + splits + ", exported=" + exported + ", skipped=" + skipped + ", rows=" + rows
+                    + ", cells=" + cells + ", bytes=" + bytes + ", millis=" + millis;
+        }
+    }
+
+    private final Connection connection;
+    private final TableName tableName;
+    private byte[] startRow = new byte[0];
+    private byte[] stopRow = new byte[0];
+    private ScanOptions options = ScanOptions.bulkExport();
+    private Path outputDir;
+    private boolean gzip;
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    private TableExporter(Connection connection, TableName tableName) {
+        this.connection = connection;
+        this.tableName = tableName;
+        this.outputDir = Paths.get("export-" + tableName.getNameAsString().replace(':', '_'));
+    }
+
+    public static TableExporter create(Connection connection, String namespace, String tableName) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        return new TableExporter(connection, TableName.valueOf(namespace, tableName));
+    }
+
+    // 行键范围[startRow, stopRow)，为null表示不限
+    public TableExporter range(String startRow, String stopRow) {
+        this.startRow = startRow == null ? new byte[0] : Bytes.toBytes(startRow);
+        this.stopRow = stopRow == null ? new byte[0] : Bytes.toBytes(stopRow);
+        return this;
+    }
+
+    // 扫描参数和列投影，默认ScanOptions.bulkExport()
+    public TableExporter options(ScanOptions options) {
+        this.options = options == null ? ScanOptions.bulkExport() : options;
+        return this;
+    }
+
+    public TableExporter outputDir(String outputDir) {
+        this.outputDir = Paths.get(outputDir);
+        return this;
+    }
+
+    // 输出.csv.gz
+    public TableExporter gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    public TableExporter parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须大于0");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public Report run() throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(outputDir);
+        // 中途失败时目录中不能留有上一次的完成标记
+        Files.deleteIfExists(outputDir.resolve(SUCCESS_FILE));
+        List<ParallelScanner.ScanSplit> splits = loadOrCreateSplits();
+        Report report = new Report();
+        report.splits = splits.size();
+
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < splits.size(); i++) {
+            if (Files.exists(partFile(i))) {
+                report.skipped++;
+            } else {
+                pending.add(i);
+            }
+        }
+        if (!pending.isEmpty()) {
+            Scan template = new Scan();
+            options.apply(template);
+            template.setScanMetricsEnabled(true);
+            AtomicInteger threadId = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, pending.size()), r -> {
+                Thread thread = new Thread(r, "table-exporter-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<?>> futures = new ArrayList<>(pending.size());
+                for (int index : pending) {
+                    Scan scan = splits.get(index).toScan(template);
+                    futures.add(executor.submit(() -> {
+                        exportSplit(index, scan, report);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("导出被中断");
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        Files.write(outputDir.resolve(SUCCESS_FILE), new byte[0]);
+        report.millis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    // 导出一个子范围，写完后从.inprogress改名为正式文件
+    private void exportSplit(int index, Scan scan, Report report) throws IOException {
+        Path part = partFile(index);
+        Path inProgress = part.resolveSibling(part.getFileName() + ".inprogress");
+        Table table = TableCache.forConnection(connection).getTable(tableName);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_SCAN, tableName);
+        long rows = 0;
+        long cells = 0;
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(inProgress), BUFFER_SIZE);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        try (RowSinks.CsvSink sink = RowSinks.csv(out);
+             ResultScanner resultScanner = table.getScanner(scan)) {
+            for (Result result : resultScanner) {
+                RowSink.accept(result, sink);
+                rows++;
+                cells += result.size();
+            }
+            timer.success(resultScanner.getScanMetrics(), rows, cells);
+            report.bytes.addAndGet(resultScanner.getScanMetrics() == null ? 0
+                    : resultScanner.getScanMetrics().countOfBytesInResults.get());
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            Files.deleteIfExists(inProgress);
+            throw e;
+        }
+        Files.move(inProgress, part, StandardCopyOption.ATOMIC_MOVE);
+        report.rows.addAndGet(rows);
+        report.cells.addAndGet(cells);
+        report.exported.incrementAndGet();
+    }
+
+    private Path partFile(int index) {
+        return outputDir.resolve(String.format("part-%05d.csv", index) + (gzip ? ".gz" : ""));
+    }
+
+    // _splits的第一行：#table=表名,start=起始行键十六进制,stop=结束行键十六进制,format=csv或csv.gz
+    private String splitsHeader() {
+        return "#table=" + tableName.getNameAsString() + ",start=" + Bytes.toHex(startRow)
+                + ",stop=" + Bytes.toHex(stopRow) + ",format=" + (gzip ? "csv.gz" : "csv");
+    }
+
+    // 读取上次运行记录的子范围，没有时按当前的Region边界切分并记录；记录的参数与本次不同时抛出IOException
+    private List<ParallelScanner.ScanSplit> loadOrCreateSplits() throws IOException {
+        Path splitsFile = outputDir.resolve(SPLITS_FILE);
+        String header = splitsHeader();
+        List<ParallelScanner.ScanSplit> splits = new ArrayList<>();
+        if (Files.exists(splitsFile)) {
+            List<String> lines = Files.readAllLines(splitsFile, StandardCharsets.UTF_8);
+            String recorded = lines.isEmpty() ? "" : lines.get(0);
+            if (!header.equals(recorded)) {
+                throw new IOException("输出目录" + outputDir + "中已有参数不同的导出，请换一个输出目录或删除该目录："
+                        + "记录的是[" + recorded + "]，本次是[" + header + "]");
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                // 序号,起始行键十六进制,结束行键十六进制,Region
+                String[] fields = line.split(",", 4);
+                splits.add(new ParallelScanner.ScanSplit(Bytes.fromHex(fields[1]), Bytes.fromHex(fields[2]), fields[3]));
+            }
+            return splits;
+        }
+        splits = ParallelScanner.split(connection, tableName, startRow, stopRow);
+        List<String> lines = new ArrayList<>(splits.size() + 1);
+        lines.add(header);
+        for (int i = 0; i < splits.size(); i++) {
+            ParallelScanner.ScanSplit split = splits.get(i);
+            lines.add(i + "," + Bytes.toHex(split.getStartRow()) + "," + Bytes.toHex(split.getStopRow())
+                    + "," + split.getRegionName());
+        }
+        Path tmp = splitsFile.resolveSibling(SPLITS_FILE + ".inprogress");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, splitsFile, StandardCopyOption.ATOMIC_MOVE);
+        return splits;
+    }
+
+    // 用法：TableExporter 集群名 namespace:table 输出目录 [startRow stopRow] [--gzip]
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("用法：TableExporter 集群名 namespace:table 输出目录 [startRow stopRow] [--gzip]");
+            return;
+        }
+        TableName tn = TableName.valueOf(args[1]);
+        Connection connection = HBaseUtils.getConnection(args[0]);
+        TableExporter exporter = create(connection, tn.getNamespaceAsString(), tn.getQualifierAsString())
+                .outputDir(args[2]);
+        List<String> rest = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            if ("--gzip".equals(args[i])) {
+                exporter.gzip(true);
+            } else {
+                rest.add(args[i]);
+            }
+        }
+        if (rest.size() == 2) {
+            exporter.range(rest.get(0), rest.get(1));
+        }
+        System.out.println(exporter.run());
+        HBaseUtils.closeConnection(connection);
+    }
+}
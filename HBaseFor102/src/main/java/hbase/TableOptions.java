@@ -0,0 +1,249 @@
+package hbase;
+
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptorBuilder;
+import org.apache.hadoop.hbase.client.TableDescriptorBuilder;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.regionserver.BloomType;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ClassName: TableOptions
+ * Package: hbase
+ * Description: 建表参数：预分区的切分点和各列族的调优参数（见FamilyOptions）
+ * 切分点可以直接指定，也可以按十六进制、均匀字节或行键样本生成
+ * regionReplication大于1时每个Region有只读副本，配合HedgedReader的TIMELINE读取
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 19:20
+ * @Version 1.0
+ */
+public class TableOptions {
+
+    // 所有列族共用的参数
+    private final FamilyOptions defaults;
+    // 单独调整的列族
+    private final Map<String, FamilyOptions> families = new LinkedHashMap<>();
+    private byte[][] splitKeys;
+    private int regionReplication = 1;
+
+    public TableOptions() {
+        this(new FamilyOptions());
+    }
+
+    private TableOptions(FamilyOptions defaults) {
+        this.defaults = defaults;
+    }
+
+    // 一个Region，列族使用默认参数
+    public static TableOptions defaults() {
+        return new TableOptions();
+    }
+
+    // 写多读少：不做块内编码降低写入和compaction的CPU，块大小保持64KB
+    // 压缩使用GZ，没有本地库时退回纯Java实现；集群装好SNAPPY或LZ4时可以用allFamilies().compression(...)替换
+    public static TableOptions writeHeavy() {
+        TableOptions options = new TableOptions();
+        options.defaults
+                .compression(Compression.Algorithm.GZ)
+                .dataBlockEncoding(DataBlockEncoding.NONE)
+                .bloomType(BloomType.ROW)
+                .blockSize(64 * 1024)
+                .maxVersions(1);
+        return options;
+    }
+
+    // 读多写少：FAST_DIFF减少块数量，小块提高随机读的BlockCache命中率，in-memory优先缓存
+    // 压缩同writeHeavy，使用不依赖本地库的GZ
+    public static TableOptions readHeavy() {
+        TableOptions options = new TableOptions();
+        options.defaults
+                .compression(Compression.Algorithm.GZ)
+                .dataBlockEncoding(DataBlockEncoding.FAST_DIFF)
+                .bloomType(BloomType.ROW)
+                .blockSize(16 * 1024)
+                .inMemory(true)
+                .maxVersions(1);
+        return options;
+    }
+
+    // 按名称获取预设：write-heavy、read-heavy、default
+    public static TableOptions profile(String name) {
+        if (name == null || name.trim().isEmpty() || "default".equals(name)) {
+            return defaults();
+        }
+        switch (name) {
+            case "write-heavy":
+                return writeHeavy();
+            case "read-heavy":
+                return readHeavy();
+            default:
+                throw new IllegalArgumentException("未知的建表预设：" + name);
+        }
+    }
+
+    // 复制一份，调整副本不影响调用方传入的参数
+    public TableOptions copy() {
+        TableOptions copy = new TableOptions(defaults.copy());
+        for (Map.Entry<String, FamilyOptions> entry : families.entrySet()) {
+            copy.families.put(entry.getKey(), entry.getValue().copy());
+        }
+        copy.splitKeys = splitKeys == null ? null : splitKeys.clone();
+        copy.regionReplication = regionReplication;
+        return copy;
+    }
+
+    // 所有列族的默认参数，单独调整过的列族不受之后修改的影响
+    public FamilyOptions allFamilies() {
+        return defaults;
+    }
+
+    // 单独调整某个列族，第一次调用时复制当前的默认参数
+    public FamilyOptions family(String cf) {
+        FamilyOptions options = families.get(cf);
+        if (options == null) {
+            options = defaults.copy();
+            families.put(cf, options);
+        }
+        return options;
+    }
+
+    public TableOptions splitKeys(byte[]... splitKeys) {
+        this.splitKeys = normalize(Arrays.asList(splitKeys));
+        return this;
+    }
+
+    public TableOptions splitKeys(String... splitKeys) {
+        List<byte[]> keys = new ArrayList<>(splitKeys.length);
+        for (String splitKey : splitKeys) {
+            keys.add(Bytes.toBytes(splitKey));
+        }
+        this.splitKeys = normalize(keys);
+        return this;
+    }
+
+    // 行键以8位小写十六进制开头时（如MD5前缀），00000000~ffffffff均分为regions段
+    public TableOptions hexSplits(int regions) {
+        this.splitKeys = hexSplitKeys(regions);
+        return this;
+    }
+
+    // 行键首字节均匀分布时（如哈希、随机字节），按字节值均分为regions段
+    public TableOptions uniformSplits(int regions) {
+        this.splitKeys = uniformSplitKeys(regions);
+        return this;
+    }
+
+    // 按行键样本的分位数切分，样本越接近真实分布越均匀
+    public TableOptions sampleSplits(Collection<String> sample, int regions) {
+        List<byte[]> keys = new ArrayList<>(sample.size());
+        for (String key : sample) {
+            keys.add(Bytes.toBytes(key));
+        }
+        this.splitKeys = sampleSplitKeys(keys, regions);
+        return this;
+    }
+
+    public byte[][] getSplitKeys() {
+        return splitKeys;
+    }
+
+    // 每个Region的副本数（包括主副本），对应 REGION_REPLICATION；副本的数据由RegionServer异步同步，读到的可能是旧数据
+    public TableOptions regionReplication(int regionReplication) {
+        if (regionReplication <= 0) {
+            throw new IllegalArgumentException("副本数必须大于0");
+        }
+        this.regionReplication = regionReplication;
+        return this;
+    }
+
+    public int getRegionReplication() {
+        return regionReplication;
+    }
+
+    public static byte[][] hexSplitKeys(int regions) {
+        checkRegions(regions);
+        BigInteger range = BigInteger.ONE.shiftLeft(32);
+        List<byte[]> keys = new ArrayList<>(regions - 1);
+        for (int i = 1; i < regions; i++) {
+            long value = range.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(regions)).longValue();
+            keys.add(Bytes.toBytes(String.format("%08x", value)));
+        }
+        return normalize(keys);
+    }
+
+    public static byte[][] uniformSplitKeys(int regions) {
+        checkRegions(regions);
+        BigInteger range = BigInteger.ONE.shiftLeft(64);
+        List<byte[]> keys = new ArrayList<>(regions - 1);
+        for (int i = 1; i < regions; i++) {
+            long value = range.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(regions)).longValue();
+            byte[] key = Bytes.toBytes(value);
+            // 去掉末尾的0字节，切分点更短
+            int length = key.length;
+            while (length > 1 && key[length - 1] == 0) {
+                length--;
+            }
+            keys.add(Arrays.copyOf(key, length));
+        }
+        return normalize(keys);
+    }
+
+    public static byte[][] sampleSplitKeys(List<byte[]> sample, int regions) {
+        checkRegions(regions);
+        List<byte[]> sorted = new ArrayList<>(sample);
+        sorted.sort(Bytes.BYTES_COMPARATOR);
+        List<byte[]> keys = new ArrayList<>(regions - 1);
+        if (!sorted.isEmpty()) {
+            for (int i = 1; i < regions; i++) {
+                keys.add(sorted.get((int) ((long) i * sorted.size() / regions)));
+            }
+        }
+        return normalize(keys);
+    }
+
+    private static void checkRegions(int regions) {
+        if (regions < 1) {
+            throw new IllegalArgumentException("Region数必须大于0");
+        }
+    }
+
+    // 排序、去重、去掉空切分点
+    private static byte[][] normalize(List<byte[]> keys) {
+        List<byte[]> sorted = new ArrayList<>(keys);
+        sorted.sort(Bytes.BYTES_COMPARATOR);
+        List<byte[]> result = new ArrayList<>(sorted.size());
+        for (byte[] key : sorted) {
+            if (key.length == 0) {
+                continue;
+            }
+            if (!result.isEmpty() && Bytes.equals(result.get(result.size() - 1), key)) {
+                continue;
+            }
+            result.add(key);
+        }
+        return result.toArray(new byte[0][]);
+    }
+
+    // 为每个列族生成列族描述并加入表描述
+    public TableDescriptorBuilder apply(TableDescriptorBuilder builder, String... cfs) {
+        for (String cf : cfs) {
+            FamilyOptions options = families.containsKey(cf) ? families.get(cf) : defaults;
+            ColumnFamilyDescriptorBuilder columnFamilyDescriptorBuilder =
+                    ColumnFamilyDescriptorBuilder.newBuilder(Bytes.toBytes(cf));
+            builder.setColumnFamily(options.apply(columnFamilyDescriptorBuilder).build());
+        }
+        if (regionReplication > 1) {
+            builder.setRegionReplication(regionReplication);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,145 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * ClassName: TypedTable
+ * Package: hbase
+ * Description: 按RowSchema读写POJO，put/get/delete经过HBaseUtils，二级索引、写入限流、行缓存和指标与putData一致
+ * 行键按OrderedBytes编码，scan可以只给出前几个行键字段做前缀扫描，结果按字段值的顺序返回
+ * 编码器每个线程一个，在行之间复用缓冲区
+ * 按列存储时put是upsert：null字段不会删除已有的列，需要清空时先delete整行；所有值字段都为null的对象会被拒绝
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 23:50
+ * @Version 1.0
+ */
+public class TypedTable<T> {
+
+    private final Connection connection;
+    private final String namespace;
+    private final String tableName;
+    private final TableName tn;
+    private final RowSchema<T> schema;
+    private final ThreadLocal<RowCodec<T>> codecs;
+
+    private TypedTable(Connection connection, String namespace, String tableName, RowSchema<T> schema) {
+        this.connection = connection;
+        this.namespace = namespace;
+        this.tableName = tableName;
+        this.tn = TableName.valueOf(namespace, tableName);
+        this.schema = schema;
+        this.codecs = ThreadLocal.withInitial(schema::newCodec);
+    }
+
+    public static <T> TypedTable<T> create(Connection connection, String namespace, String tableName, RowSchema<T> schema) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new IllegalArgumentException("表名不能为空");
+        }
+        if (schema == null) {
+            throw new IllegalArgumentException("schema不能为空");
+        }
+        return new TypedTable<>(connection, namespace, tableName, schema);
+    }
+
+    public RowSchema<T> getSchema() {
+        return schema;
+    }
+
+    // 当前线程的编码器
+    public RowCodec<T> codec() {
+        return codecs.get();
+    }
+
+    // 按schema中的列族建表
+    public void createTable(TableOptions options) throws Exception {
+        HBaseUtils.createTable(connection, namespace, tableName, options,
+                schema.getFamilies().toArray(new String[0]));
+    }
+
+    // 值字段全为null时抛出IllegalArgumentException
+    public void put(T object) throws IOException {
+        HBaseUtils.put(connection, tn, codec().encode(object));
+    }
+
+    // 大量写入经过BatchWriter，返回写入的行数；遇到值字段全为null的对象时抛出异常，之前的对象在关闭BatchWriter时仍会写入
+    public long putAll(Iterable<? extends T> objects) throws IOException {
+        RowCodec<T> codec = codec();
+        long rows = 0;
+        try (BatchWriter writer = BatchWriter.create(connection, namespace, tableName)) {
+            for (T object : objects) {
+                writer.mutate(codec.encode(object));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // 按完整的行键字段读取，行不存在时返回null
+    public T get(Object... keyValues) throws IOException {
+        RowCodec<T> codec = codec();
+        Result result = HBaseUtils.get(connection, tn, new Get(fullKey(codec, keyValues)));
+        return codec.decode(result);
+    }
+
+    // 删除整行
+    public void delete(Object... keyValues) throws IOException {
+        HBaseUtils.delete(connection, tn, new Delete(fullKey(codec(), keyValues)));
+    }
+
+    /**
+     * 扫描行键以keyPrefix开头的行，keyPrefix为空时全表扫描
+     *
+     * @param options  可以为null，limit按行计算
+     * @param consumer 每行解码后的对象
+     * @return 返回的行数
+     */
+    public long scan(ScanOptions options, Consumer<? super T> consumer, Object... keyPrefix) throws IOException {
+        RowCodec<T> codec = codec();
+        Scan scan = new Scan();
+        if (options != null) {
+            options.apply(scan);
+        }
+        if (keyPrefix.length > 0) {
+            byte[] prefix = codec.encodeKey(keyPrefix);
+            scan.withStartRow(prefix).withStopRow(Condition.prefixStopRow(prefix));
+        }
+        Integer limit = options == null ? null : options.getLimit();
+        Table table = TableCache.forConnection(connection).getTable(tn);
+        ClientMetrics.Timer timer = ClientMetrics.get().start(ClientMetrics.OP_SCAN, tn);
+        long rows = 0;
+        long cells = 0;
+        try (ResultScanner scanner = table.getScanner(scan)) {
+            for (Result result = scanner.next(); result != null && (limit == null || rows < limit); result = scanner.next()) {
+                consumer.accept(codec.decode(result));
+                rows++;
+                cells += result.size();
+            }
+            timer.success(rows, cells, 0);
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+        return rows;
+    }
+
+    private byte[] fullKey(RowCodec<T> codec, Object[] keyValues) {
+        if (keyValues.length != schema.getKeyFields().size()) {
+            throw new IllegalArgumentException("需要" + schema.getKeyFields().size() + "个行键字段");
+        }
+        return codec.encodeKey(keyValues);
+    }
+}
@@ -0,0 +1,122 @@
+package hbase;
+
+import org.apache.hadoop.hbase.client.Scan;
+
+import java.io.IOException;
+
+/**
+ * ClassName: VersionOptions
+ * Package: hbase
+ * Description: 多版本和时间范围读取的参数：setTimeRange、setTimestamp、readVersions、raw
+ * 指定时间范围时RegionServer可以跳过时间戳不在范围内的HFile
+ * 结果按batch个Cell分段返回，一行的所有版本不需要一次放进内存
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 21:20
+ * @Version 1.0
+ */
+public class VersionOptions {
+
+    // 每段最多的Cell数
+    public static final int DEFAULT_BATCH = 1000;
+
+    private Long minTimestamp;
+    private Long maxTimestamp;
+    private Long timestamp;
+    // 0表示所有版本
+    private int versions = 1;
+    private boolean raw;
+    private int batch = DEFAULT_BATCH;
+
+    // 只读最新版本
+    public static VersionOptions latest() {
+        return new VersionOptions();
+    }
+
+    // 每列最多versions个版本
+    public static VersionOptions versions(int versions) {
+        return new VersionOptions().maxVersions(versions);
+    }
+
+    // 所有版本，对应 VERSIONS=>列族的最大版本数
+    public static VersionOptions allVersions() {
+        return new VersionOptions().maxVersions(0);
+    }
+
+    // 某一时刻的数据：时间戳小于等于asOf的最新版本
+    public static VersionOptions asOf(long asOf) {
+        return new VersionOptions().timeRange(0, asOf + 1);
+    }
+
+    // 包括删除标记和已删除但还没有被major compaction清理的版本，对应 RAW=>true
+    public static VersionOptions history() {
+        return new VersionOptions().maxVersions(0).raw(true);
+    }
+
+    public VersionOptions maxVersions(int versions) {
+        if (versions < 0) {
+            throw new IllegalArgumentException("版本数不能小于0");
+        }
+        this.versions = versions;
+        return this;
+    }
+
+    // 时间范围[minTimestamp, maxTimestamp)
+    public VersionOptions timeRange(long minTimestamp, long maxTimestamp) {
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.timestamp = null;
+        return this;
+    }
+
+    // 只读时间戳等于timestamp的版本
+    public VersionOptions timestamp(long timestamp) {
+        this.timestamp = timestamp;
+        this.minTimestamp = null;
+        this.maxTimestamp = null;
+        return this;
+    }
+
+    public VersionOptions raw(boolean raw) {
+        this.raw = raw;
+        return this;
+    }
+
+    public VersionOptions batch(int batch) {
+        if (batch <= 0) {
+            throw new IllegalArgumentException("batch必须大于0");
+        }
+        this.batch = batch;
+        return this;
+    }
+
+    public int getVersions() {
+        return versions;
+    }
+
+    public boolean isRaw() {
+        return raw;
+    }
+
+    public int getBatch() {
+        return batch;
+    }
+
+    // 把参数应用到Scan上，单行读取也通过Scan分段返回
+    public Scan apply(Scan scan) throws IOException {
+        if (timestamp != null) {
+            scan.setTimestamp(timestamp);
+        } else if (minTimestamp != null) {
+            scan.setTimeRange(minTimestamp, maxTimestamp);
+        }
+        if (versions == 0) {
+            scan.readAllVersions();
+        } else {
+            scan.readVersions(versions);
+        }
+        scan.setRaw(raw);
+        scan.setBatch(batch);
+        scan.setAllowPartialResults(true);
+        return scan;
+    }
+}
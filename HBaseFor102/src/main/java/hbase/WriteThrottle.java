@@ -0,0 +1,231 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ClassName: WriteThrottle
+ * Package: hbase
+ * Description: 写入限流：每张表一个RateLimiter限制每秒的行数，每个RegionServer一个ConcurrencyLimiter限制并发写请求，
+ * 并发限制按延迟和过载异常自适应调整，让写入稳定在集群能承受的吞吐附近，而不是在打满和重试之间来回震荡
+ * enable之后HBaseUtils的putData/deleteData/incrementData经过两种限制，BatchWriter只经过表的速率限制；
+ * 并发限制注册为JMX的hbase.client:type=WriteThrottle,server=*
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 23:10
+ * @Version 1.0
+ */
+public class WriteThrottle {
+
+    public static final int DEFAULT_INITIAL_CONCURRENCY = 8;
+    public static final int DEFAULT_MIN_CONCURRENCY = 1;
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+    public static final long DEFAULT_LATENCY_TARGET_MS = 100L;
+    public static final double DEFAULT_BACKOFF_RATIO = 0.5;
+
+    private static final Map<Connection, WriteThrottle> THROTTLES = new ConcurrentHashMap<>();
+
+    // 一次写请求占用的许可
+    public static final class Permit {
+        private static final Permit NONE = new Permit(null);
+        private final ConcurrencyLimiter limiter;
+        private final long startNanos = System.nanoTime();
+
+        private Permit(ConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        // 请求结束时调用一次，成功时error为null
+        public void release(Throwable error) {
+            if (limiter != null) {
+                limiter.release(System.nanoTime() - startNanos, error);
+            }
+        }
+    }
+
+    private final Connection connection;
+    private final Map<TableName, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private volatile int initialConcurrency = DEFAULT_INITIAL_CONCURRENCY;
+    private volatile int minConcurrency = DEFAULT_MIN_CONCURRENCY;
+    private volatile int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private volatile long latencyTargetMs = DEFAULT_LATENCY_TARGET_MS;
+    private volatile double backoffRatio = DEFAULT_BACKOFF_RATIO;
+
+    private WriteThrottle(Connection connection) {
+        this.connection = connection;
+    }
+
+    // 为连接开启写入限流，已开启时返回已有的
+    public static WriteThrottle enable(Connection connection) {
+        if (connection == null) {
+            throw new IllegalArgumentException("连接对象不能为空");
+        }
+        return THROTTLES.computeIfAbsent(connection, WriteThrottle::new);
+    }
+
+    // 没有开启时返回null
+    public static WriteThrottle forConnection(Connection connection) {
+        return connection == null ? null : THROTTLES.get(connection);
+    }
+
+    // 关闭限流并注销JMX
+    public static void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        WriteThrottle throttle = THROTTLES.remove(connection);
+        if (throttle != null) {
+            for (ConcurrencyLimiter limiter : throttle.limiters.values()) {
+                unregister(limiter);
+            }
+        }
+    }
+
+    // 表每秒最多写入的行数，小于等于0表示不限速
+    public WriteThrottle rateLimit(String namespace, String tableName, double rowsPerSecond) {
+        TableName tn = TableName.valueOf(namespace, tableName);
+        rateLimiters.computeIfAbsent(tn, t -> RateLimiter.create(rowsPerSecond)).setRate(rowsPerSecond);
+        return this;
+    }
+
+    // 每个RegionServer的并发范围，只影响之后新建的限制
+    public WriteThrottle concurrency(int initial, int min, int max) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException("并发限制必须满足0 < min <= max");
+        }
+        this.initialConcurrency = initial;
+        this.minConcurrency = min;
+        this.maxConcurrency = max;
+        return this;
+    }
+
+    // 写请求的目标延迟（包括客户端重试），超过时减小并发，也是两次减小之间的冷却期
+    public WriteThrottle latencyTarget(long latencyTargetMs) {
+        if (latencyTargetMs <= 0) {
+            throw new IllegalArgumentException("目标延迟必须大于0");
+        }
+        this.latencyTargetMs = latencyTargetMs;
+        return this;
+    }
+
+    // 减小并发时乘以的比例
+    public WriteThrottle backoffRatio(double backoffRatio) {
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("退避比例必须在(0, 1)之间");
+        }
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    // 没有设置速率时返回null
+    public RateLimiter getRateLimiter(TableName tn) {
+        return rateLimiters.get(tn);
+    }
+
+    public Collection<ConcurrencyLimiter> getLimiters() {
+        return new ArrayList<>(limiters.values());
+    }
+
+    // 写入rows行之前调用：先按表限速，再占用行键所在RegionServer的并发
+    public Permit acquire(TableName tn, byte[] row, int rows) throws IOException {
+        acquireRate(tn, rows);
+        ConcurrencyLimiter limiter = limiterFor(serverOf(tn, row));
+        limiter.acquire();
+        return new Permit(limiter);
+    }
+
+    // 只按表限速，用于BatchWriter这类不能按RegionServer区分请求的写入
+    public void acquireRate(TableName tn, int rows) throws InterruptedIOException {
+        RateLimiter rateLimiter = rateLimiters.get(tn);
+        if (rateLimiter != null) {
+            rateLimiter.acquire(rows);
+        }
+    }
+
+    // 没有开启限流时返回不占用任何限制的许可
+    static Permit acquire(Connection connection, TableName tn, byte[] row, int rows) throws IOException {
+        WriteThrottle throttle = forConnection(connection);
+        return throttle == null ? Permit.NONE : throttle.acquire(tn, row, rows);
+    }
+
+    static void acquireRate(Connection connection, TableName tn, int rows) throws InterruptedIOException {
+        WriteThrottle throttle = forConnection(connection);
+        if (throttle != null) {
+            throttle.acquireRate(tn, rows);
+        }
+    }
+
+    private ConcurrencyLimiter limiterFor(String server) {
+        ConcurrencyLimiter limiter = limiters.get(server);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(server, s -> {
+                ConcurrencyLimiter created = new ConcurrencyLimiter(s, initialConcurrency, minConcurrency,
+                        maxConcurrency, latencyTargetMs, backoffRatio);
+                register(created);
+                return created;
+            });
+        }
+        return limiter;
+    }
+
+    // Region位置使用客户端缓存
+    private String serverOf(TableName tn, byte[] row) throws IOException {
+        try (RegionLocator regionLocator = connection.getRegionLocator(tn)) {
+            return regionLocator.getRegionLocation(row).getServerName().getAddress().toString();
+        }
+    }
+
+    private static void register(ConcurrencyLimiter limiter) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(limiter);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(limiter, objectName);
+            }
+        } catch (Exception e) {
+            // JMX注册失败不影响限流
+            System.out.println("注册JMX指标失败：" + e);
+        }
+    }
+
+    private static void unregister(ConcurrencyLimiter limiter) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(limiter);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            System.out.println("注销JMX指标失败：" + e);
+        }
+    }
+
+    private static ObjectName objectName(ConcurrencyLimiter limiter) throws Exception {
+        return new ObjectName(ClientMetrics.JMX_DOMAIN + ":type=WriteThrottle,server=" + ObjectName.quote(limiter.getServer()));
+    }
+
+    @Override
+    public String toString() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<TableName, RateLimiter> entry : rateLimiters.entrySet()) {
+            lines.add(entry.getKey().getNameAsString() + " rate=" + entry.getValue().getRate());
+        }
+        for (ConcurrencyLimiter limiter : limiters.values()) {
+            lines.add(limiter.toString());
+        }
+        return String.join(System.lineSeparator(), lines);
+    }
+}
@@ -0,0 +1,117 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * ClassName: ConditionTest
+ * Package: hbase
+ * Description: INT列值条件拆分有符号区间后的结果，在客户端按RegionServer的调用顺序执行Filter，不需要集群
+ * 跨越0的区间拆成两段，负数和正数都必须与int的大小比较一致
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 14:40
+ * @Version 1.0
+ */
+public class ConditionTest {
+
+    private static final byte[] ROW = Bytes.toBytes("r");
+    private static final byte[] FAMILY = Bytes.toBytes("f1");
+    private static final byte[] QUALIFIER = Bytes.toBytes("age");
+
+    private static final int[] VALUES = {
+            Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -65536, -256, -2, -1, 0, 1, 2, 255, 256, 65536,
+            Integer.MAX_VALUE - 1, Integer.MAX_VALUE
+    };
+
+    private static final CompareOperator[] OPERATORS = {
+            CompareOperator.LESS, CompareOperator.LESS_OR_EQUAL, CompareOperator.EQUAL,
+            CompareOperator.NOT_EQUAL, CompareOperator.GREATER_OR_EQUAL, CompareOperator.GREATER
+    };
+
+    @Test
+    public void testIntComparisonMatchesSignedOrder() throws IOException {
+        for (CompareOperator op : OPERATORS) {
+            for (int x : VALUES) {
+                Filter filter = Condition.compare("f1", "age", op, x).toFilter();
+                for (int value : VALUES) {
+                    assertEquals(value + " " + op + " " + x, compare(value, op, x), matches(filter, Bytes.toBytes(value)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIntRangeAcrossZero() throws IOException {
+        // -2 <= age < 3 拆成[-2, -1]和[0, 2]两段
+        Filter filter = Condition.and(
+                Condition.compare("f1", "age", CompareOperator.GREATER_OR_EQUAL, -2),
+                Condition.compare("f1", "age", CompareOperator.LESS, 3)).toFilter();
+        for (int value = -5; value <= 5; value++) {
+            assertEquals(String.valueOf(value), value >= -2 && value < 3, matches(filter, Bytes.toBytes(value)));
+        }
+        assertEquals(false, matches(filter, Bytes.toBytes(Integer.MIN_VALUE)));
+        assertEquals(false, matches(filter, Bytes.toBytes(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    public void testLongComparison() throws IOException {
+        long[] values = {Long.MIN_VALUE, -1L << 40, -1, 0, 1, 1L << 40, Long.MAX_VALUE};
+        for (long x : values) {
+            Filter filter = Condition.compare("f1", "age", CompareOperator.GREATER_OR_EQUAL, x).toFilter();
+            for (long value : values) {
+                assertEquals(value + " >= " + x, value >= x, matches(filter, Bytes.toBytes(value)));
+            }
+        }
+    }
+
+    @Test
+    public void testMissingColumn() throws IOException {
+        Condition.ColumnCondition condition = Condition.compare("f1", "age", CompareOperator.GREATER, -1);
+        assertEquals(false, matches(condition.toFilter(), null));
+        assertEquals(true, matches(condition.filterIfMissing(false).toFilter(), null));
+    }
+
+    private static boolean compare(int value, CompareOperator op, int x) {
+        switch (op) {
+            case LESS:
+                return value < x;
+            case LESS_OR_EQUAL:
+                return value <= x;
+            case EQUAL:
+                return value == x;
+            case NOT_EQUAL:
+                return value != x;
+            case GREATER_OR_EQUAL:
+                return value >= x;
+            default:
+                return value > x;
+        }
+    }
+
+    // 一行只有f1:age一个单元格，value为null时这一行没有该列
+    private static boolean matches(Filter filter, byte[] value) throws IOException {
+        filter.reset();
+        Cell cell = value == null
+                ? new KeyValue(ROW, FAMILY, Bytes.toBytes("name"), Bytes.toBytes("Tom"))
+                : new KeyValue(ROW, FAMILY, QUALIFIER, value);
+        if (filter.filterRowKey(cell)) {
+            return false;
+        }
+        // 唯一的单元格被跳过时这一行没有任何输出
+        Filter.ReturnCode code = filter.filterCell(cell);
+        if (code != Filter.ReturnCode.INCLUDE && code != Filter.ReturnCode.INCLUDE_AND_NEXT_COL
+                && code != Filter.ReturnCode.INCLUDE_AND_SEEK_NEXT_ROW) {
+            return false;
+        }
+        return !filter.filterRow();
+    }
+}
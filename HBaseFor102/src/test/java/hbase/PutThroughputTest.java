@@ -0,0 +1,101 @@
+package hbase;
+
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.filter.PrefixFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * ClassName: PutThroughputTest
+ * Package: hbase
+ * Description: 在进程内的MiniCluster上对比HBaseUtils.putData与BatchWriter的写入吞吐
+ * 两种方式写入的数据必须完全一致；吞吐受机器负载影响，只打印不断言
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 11:05
+ * @Version 1.0
+ */
+public class PutThroughputTest {
+
+    private static final String TABLE = "put_throughput";
+    private static final int ROWS = 2000;
+
+    private static HBaseTestingUtility util;
+    private static Connection connection;
+
+    @BeforeClass
+    public static void startCluster() throws Exception {
+        util = new HBaseTestingUtility();
+        util.startMiniCluster();
+        connection = util.getConnection();
+        // 表需要包含列族f1
+        HBaseUtils.createTable(connection, null, TABLE, "f1");
+    }
+
+    @AfterClass
+    public static void stopCluster() throws Exception {
+        HBaseUtils.closeConnection(connection);
+        util.shutdownMiniCluster();
+    }
+
+    @Test
+    public void testPutThroughput() throws Exception {
+        // 逐条put
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            HBaseUtils.putData(connection, null, TABLE, String.format("single-%08d", i), "f1", "name", "value" + i);
+        }
+        long singleNanos = System.nanoTime() - start;
+
+        // 批量写，缓冲区满或定时刷写
+        start = System.nanoTime();
+        try (BatchWriter writer = BatchWriter.create(connection, null, TABLE)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.put(String.format("batch-%08d", i), "f1", "name", "value" + i);
+            }
+            writer.flush();
+            assertEquals(0, writer.getFailureCount());
+            assertEquals(ROWS, writer.getMutationCount());
+        }
+        long batchNanos = System.nanoTime() - start;
+
+        System.out.println("putData：" + ROWS + "行，" + throughput(ROWS, singleNanos) + " 行/秒");
+        System.out.println("BatchWriter：" + ROWS + "行，" + throughput(ROWS, batchNanos) + " 行/秒");
+
+        assertEquals(ROWS, countRows("single-"));
+        assertEquals(ROWS, countRows("batch-"));
+        Table table = connection.getTable(TableName.valueOf(TABLE));
+        try {
+            Result result = table.get(new Get(Bytes.toBytes(String.format("batch-%08d", ROWS - 1))));
+            assertEquals("value" + (ROWS - 1), Bytes.toString(result.getValue(Bytes.toBytes("f1"), Bytes.toBytes("name"))));
+        } finally {
+            table.close();
+        }
+    }
+
+    private static int countRows(String prefix) throws Exception {
+        int rows = 0;
+        try (Table table = connection.getTable(TableName.valueOf(TABLE));
+             ResultScanner scanner = table.getScanner(new Scan().setFilter(new PrefixFilter(Bytes.toBytes(prefix))))) {
+            for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static long throughput(int rows, long nanos) {
+        return nanos == 0 ? 0 : rows * 1_000_000_000L / nanos;
+    }
+}
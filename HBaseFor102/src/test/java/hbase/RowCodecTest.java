@@ -0,0 +1,212 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ClassName: RowCodecTest
+ * Package: hbase
+ * Description: RowCodec的行键编码和打包格式，不需要集群
+ * 行键的字节序必须与值的顺序一致，只给出前几个字段时得到行键前缀；打包的行解码后与原对象一致
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 14:10
+ * @Version 1.0
+ */
+public class RowCodecTest {
+
+    static class IntKey {
+        int id;
+        String v;
+    }
+
+    static class LongKey {
+        long id;
+        String v;
+    }
+
+    static class DoubleKey {
+        double id;
+        String v;
+    }
+
+    static class StringKey {
+        String id;
+        String v;
+    }
+
+    static class Student {
+        String school;
+        long id;
+        String name;
+        Integer age;
+        Double score;
+        byte[] raw;
+        boolean active;
+    }
+
+    @Test
+    public void testIntKeyOrder() {
+        RowCodec<IntKey> codec = RowSchema.builder(IntKey.class).key("id").columns("f").build().newCodec();
+        assertOrdered(codec, Integer.MIN_VALUE, -1000, -1, 0, 1, 255, 256, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testLongKeyOrder() {
+        RowCodec<LongKey> codec = RowSchema.builder(LongKey.class).key("id").columns("f").build().newCodec();
+        assertOrdered(codec, Long.MIN_VALUE, -1L << 40, -1L, 0L, 1L, 1L << 40, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testDoubleKeyOrder() {
+        RowCodec<DoubleKey> codec = RowSchema.builder(DoubleKey.class).key("id").columns("f").build().newCodec();
+        assertOrdered(codec, Double.NEGATIVE_INFINITY, -1e10, -1.5, -0.25, 0.0, 0.25, 1.5, 1e10, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testStringKeyOrder() {
+        RowCodec<StringKey> codec = RowSchema.builder(StringKey.class).key("id").columns("f").build().newCodec();
+        // "A"必须排在"AB"之前，"AB"排在"B"之前
+        assertOrdered(codec, "", "A", "AB", "Ab", "B", "a", "中文");
+    }
+
+    @Test
+    public void testKeyPrefix() {
+        RowCodec<Student> codec = RowSchema.builder(Student.class).key("school", "id").columns("f").build().newCodec();
+        byte[] prefixA = codec.encodeKey("A");
+        byte[] stopA = Condition.prefixStopRow(prefixA);
+        for (long id : new long[]{Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE}) {
+            byte[] row = codec.encodeKey("A", id);
+            assertTrue(Bytes.startsWith(row, prefixA));
+            assertTrue(Bytes.compareTo(row, stopA) < 0);
+            // 前缀是字段边界：school为"AB"的行不在"A"的前缀范围内
+            assertFalse(Bytes.startsWith(codec.encodeKey("AB", id), prefixA));
+        }
+        // 同一school内按id排序
+        assertTrue(Bytes.compareTo(codec.encodeKey("A", -1L), codec.encodeKey("A", 1L)) < 0);
+        assertArrayEquals(new Object[]{"A", -5L}, codec.decodeKey(codec.encodeKey("A", -5L)));
+    }
+
+    @Test
+    public void testKeyArguments() {
+        RowCodec<Student> codec = RowSchema.builder(Student.class).key("school", "id").columns("f").build().newCodec();
+        try {
+            codec.encodeKey("A", 1L, 2L);
+            fail("行键字段过多应当被拒绝");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            codec.encodeKey(null, 1L);
+            fail("行键字段为null应当被拒绝");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testPackedRoundTripWithNulls() {
+        RowCodec<Student> codec = RowSchema.builder(Student.class).key("school", "id").packed("f", "d").build().newCodec();
+        Student student = new Student();
+        student.school = "A";
+        student.id = -7;
+        student.name = "Tom";
+        student.age = null;
+        student.score = null;
+        student.raw = new byte[]{0, 1, -1};
+        student.active = true;
+
+        Student decoded = codec.decode(toResult(codec.encode(student)));
+        assertEquals("A", decoded.school);
+        assertEquals(-7, decoded.id);
+        assertEquals("Tom", decoded.name);
+        assertNull(decoded.age);
+        assertNull(decoded.score);
+        assertArrayEquals(student.raw, decoded.raw);
+        assertTrue(decoded.active);
+
+        // 包装类型和引用类型的字段都为null，只在位图中记录
+        Student empty = new Student();
+        empty.school = "B";
+        empty.id = 1;
+        decoded = codec.decode(toResult(codec.encode(empty)));
+        assertEquals("B", decoded.school);
+        assertNull(decoded.name);
+        assertNull(decoded.age);
+        assertNull(decoded.raw);
+        assertFalse(decoded.active);
+    }
+
+    @Test
+    public void testPackedVersionMismatch() {
+        RowCodec<Student> codec = RowSchema.builder(Student.class).key("school", "id").packed("f", "d").build().newCodec();
+        Student student = new Student();
+        student.school = "A";
+        student.id = 1;
+        student.name = "Tom";
+        Put put = codec.encode(student);
+        Cell cell = put.get(Bytes.toBytes("f"), Bytes.toBytes("d")).get(0);
+        byte[] value = Arrays.copyOfRange(cell.getValueArray(), cell.getValueOffset(), cell.getValueOffset() + cell.getValueLength());
+        value[0]++;
+        Result result = Result.create(Collections.<Cell>singletonList(
+                new KeyValue(put.getRow(), Bytes.toBytes("f"), Bytes.toBytes("d"), value)));
+        try {
+            codec.decode(result);
+            fail("版本不一致应当被拒绝");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void testColumnRoundTrip() {
+        RowCodec<Student> codec = RowSchema.builder(Student.class).key("school", "id").columns("f").build().newCodec();
+        Student student = new Student();
+        student.school = "A";
+        student.id = 3;
+        student.age = -12;
+        student.score = 9.5;
+        Student decoded = codec.decode(toResult(codec.encode(student)));
+        assertEquals(Integer.valueOf(-12), decoded.age);
+        assertEquals(9.5, decoded.score, 0);
+        assertNull(decoded.name);
+    }
+
+    // 按给出的顺序编码，相邻两个行键的字节序必须严格递增
+    @SafeVarargs
+    private static <T, V> void assertOrdered(RowCodec<T> codec, V... values) {
+        List<byte[]> keys = new ArrayList<>();
+        for (V value : values) {
+            byte[] key = codec.encodeKey(value);
+            assertEquals(value, codec.decodeKey(key)[0]);
+            keys.add(key);
+        }
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(values[i - 1] + "应当排在" + values[i] + "之前",
+                    Bytes.compareTo(keys.get(i - 1), keys.get(i)) < 0);
+        }
+    }
+
+    private static Result toResult(Put put) {
+        List<Cell> cells = new ArrayList<>();
+        for (List<Cell> familyCells : put.getFamilyCellMap().values()) {
+            cells.addAll(familyCells);
+        }
+        cells.sort(CellComparator.getInstance());
+        return Result.create(cells);
+    }
+}
@@ -0,0 +1,171 @@
+package hbase;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ClassName: RowKeyPlannerTest
+ * Package: hbase
+ * Description: RowKeyPlanner从条件推导行键范围的区间运算，不需要集群
+ * 范围用"[start, stop)"的字符串比较，空字符串表示不限
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 14:25
+ * @Version 1.0
+ */
+public class RowKeyPlannerTest {
+
+    @Test
+    public void testPrefix() {
+        assertRanges(RowKeyPlanner.keyRanges(Condition.rowPrefix("100")), "[100, 101)");
+    }
+
+    @Test
+    public void testRowIn() {
+        // 单个行键为[key, key + 0x00)，重复的行键合并
+        assertRanges(RowKeyPlanner.keyRanges(Condition.rowIn("3001", "2001", "3001")),
+                "[2001, 2001\\x00)", "[3001, 3001\\x00)");
+    }
+
+    @Test
+    public void testOrMergesOverlapping() {
+        Condition condition = Condition.or(
+                Condition.rowPrefix("100"),
+                Condition.rowRange("1005", "1020"),
+                Condition.rowIn("2001", "0999"));
+        assertRanges(RowKeyPlanner.keyRanges(condition),
+                "[0999, 0999\\x00)", "[100, 1020)", "[2001, 2001\\x00)");
+    }
+
+    @Test
+    public void testOrMergesAdjacent() {
+        Condition condition = Condition.or(Condition.rowRange("a", "b"), Condition.rowRange("b", "c"));
+        assertRanges(RowKeyPlanner.keyRanges(condition), "[a, c)");
+    }
+
+    @Test
+    public void testAndIntersects() {
+        Condition condition = Condition.and(
+                Condition.rowPrefix("10"),
+                Condition.rowRange("105", "2"),
+                Condition.eq("f1", "name", "Jerry"));
+        assertRanges(RowKeyPlanner.keyRanges(condition), "[105, 11)");
+
+        // 行键集合与范围的交集只保留范围内的行键
+        condition = Condition.and(Condition.rowIn("1001", "2001", "3001"), Condition.rowRange("2000", "3001"));
+        assertRanges(RowKeyPlanner.keyRanges(condition), "[2001, 2001\\x00)");
+
+        // 不相交时为空，不需要扫描
+        condition = Condition.and(Condition.rowPrefix("1"), Condition.rowPrefix("2"));
+        assertRanges(RowKeyPlanner.keyRanges(condition));
+    }
+
+    @Test
+    public void testAndOfOrs() {
+        Condition condition = Condition.and(
+                Condition.or(Condition.rowPrefix("a"), Condition.rowPrefix("c")),
+                Condition.or(Condition.rowRange("a5", "c5"), Condition.rowIn("a1")));
+        assertRanges(RowKeyPlanner.keyRanges(condition), "[a1, a1\\x00)", "[a5, b)", "[c, c5)");
+    }
+
+    @Test
+    public void testUnbounded() {
+        // 列值条件无法限定行键
+        assertNull(RowKeyPlanner.keyRanges(Condition.eq("f1", "name", "Jerry")));
+        // OR中任一分支不能限定行键时，整体需要全表扫描
+        assertNull(RowKeyPlanner.keyRanges(Condition.or(Condition.rowPrefix("1"), Condition.eq("f1", "name", "Jerry"))));
+        // AND中能限定的分支仍然生效
+        assertRanges(RowKeyPlanner.keyRanges(Condition.and(Condition.rowPrefix("1"), Condition.eq("f1", "name", "Jerry"))),
+                "[1, 2)");
+        // 第一个字节就是通配符的模糊匹配没有固定前缀
+        assertNull(RowKeyPlanner.keyRanges(Condition.rowFuzzy("?_1", '?')));
+        assertRanges(RowKeyPlanner.keyRanges(Condition.rowFuzzy("ab?_1", '?')), "[ab, ac)");
+    }
+
+    @Test
+    public void testOpenEndedRanges() {
+        assertRanges(RowKeyPlanner.keyRanges(Condition.rowRange("5", null)), "[5, )");
+        assertRanges(RowKeyPlanner.keyRanges(Condition.rowRange(null, "5")), "[, 5)");
+        // 开放的范围吸收之后所有的范围
+        assertRanges(RowKeyPlanner.keyRanges(Condition.or(Condition.rowRange("5", null), Condition.rowPrefix("7"),
+                Condition.rowIn("1"))), "[1, 1\\x00)", "[5, )");
+        // 两端都开放的范围与任何范围的交集就是那个范围
+        assertRanges(RowKeyPlanner.keyRanges(Condition.and(Condition.rowRange(null, null), Condition.rowPrefix("7"))),
+                "[7, 8)");
+        assertRanges(RowKeyPlanner.keyRanges(Condition.and(Condition.rowRange("3", null), Condition.rowRange(null, "5"))),
+                "[3, 5)");
+    }
+
+    @Test
+    public void testPrefixOfAllFF() {
+        // 全是0xFF的前缀没有结束行键，扫描到表尾
+        byte[] prefix = new byte[]{(byte) 0xFF, (byte) 0xFF};
+        assertEquals(0, Condition.prefixStopRow(prefix).length);
+        assertEquals("\\x01\\x03", Bytes.toStringBinary(Condition.prefixStopRow(new byte[]{1, 2, (byte) 0xFF})));
+    }
+
+    @Test
+    public void testRegionBoundaries() {
+        // Region：[, 1000) [1000, 2000) [2000, )
+        List<RowKeyPlanner.KeyRange> regions = Arrays.asList(range("", "1000"), range("1000", "2000"), range("2000", ""));
+        List<RowKeyPlanner.KeyRange> ranges = RowKeyPlanner.keyRanges(
+                Condition.or(Condition.rowRange("0500", "1500"), Condition.rowIn("1700", "3000")));
+
+        // 跨越边界的范围在每个Region里各取一段
+        assertRanges(inRegion(ranges, regions.get(0)), "[0500, 1000)");
+        assertRanges(inRegion(ranges, regions.get(1)), "[1000, 1500)", "[1700, 1700\\x00)");
+        assertRanges(inRegion(ranges, regions.get(2)), "[3000, 3000\\x00)");
+
+        // 与Region不相交的范围跳过该Region
+        List<RowKeyPlanner.KeyRange> prefix = RowKeyPlanner.keyRanges(Condition.rowPrefix("15"));
+        assertTrue(inRegion(prefix, regions.get(0)).isEmpty());
+        assertRanges(inRegion(prefix, regions.get(1)), "[15, 16)");
+        assertTrue(inRegion(prefix, regions.get(2)).isEmpty());
+
+        // 结束行键等于Region起点时不属于该Region
+        List<RowKeyPlanner.KeyRange> touching = RowKeyPlanner.keyRanges(Condition.rowRange("0900", "1000"));
+        assertRanges(inRegion(touching, regions.get(0)), "[0900, 1000)");
+        assertTrue(inRegion(touching, regions.get(1)).isEmpty());
+
+        // 开放的范围覆盖之后的所有Region
+        List<RowKeyPlanner.KeyRange> open = RowKeyPlanner.keyRanges(Condition.rowRange("1999", null));
+        assertTrue(inRegion(open, regions.get(0)).isEmpty());
+        assertRanges(inRegion(open, regions.get(1)), "[1999, 2000)");
+        assertRanges(inRegion(open, regions.get(2)), "[2000, )");
+    }
+
+    @Test
+    public void testExactRowKeyCondition() {
+        assertTrue(RowKeyPlanner.isExactRowKeyCondition(
+                Condition.or(Condition.rowPrefix("1"), Condition.and(Condition.rowRange("2", "3"), Condition.rowIn("25")))));
+        // 模糊匹配和列值条件需要继续作为Filter执行
+        assertFalse(RowKeyPlanner.isExactRowKeyCondition(Condition.rowFuzzy("ab?", '?')));
+        assertFalse(RowKeyPlanner.isExactRowKeyCondition(Condition.and(Condition.rowPrefix("1"), Condition.eq("f1", "name", "a"))));
+        assertNull(RowKeyPlanner.residualFilter(Condition.and(Condition.rowPrefix("1"), Condition.rowRange("1", "2"))));
+    }
+
+    private static List<RowKeyPlanner.KeyRange> inRegion(List<RowKeyPlanner.KeyRange> ranges, RowKeyPlanner.KeyRange region) {
+        return RowKeyPlanner.intersect(ranges, Collections.singletonList(region));
+    }
+
+    private static RowKeyPlanner.KeyRange range(String start, String stop) {
+        return new RowKeyPlanner.KeyRange(Bytes.toBytes(start), Bytes.toBytes(stop));
+    }
+
+    private static void assertRanges(List<RowKeyPlanner.KeyRange> actual, String... expected) {
+        String[] ranges = new String[actual.size()];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = actual.get(i).toString();
+        }
+        assertEquals(Arrays.asList(expected), Arrays.asList(ranges));
+    }
+}
@@ -0,0 +1,109 @@
+package hbase.benchmarks;
+
+import hbase.BatchWriter;
+import hbase.ConnectionManager;
+import hbase.HBaseUtils;
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptorBuilder;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.TableDescriptorBuilder;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * ClassName: BenchmarkCluster
+ * Package: hbase.benchmarks
+ * Description: 基准测试使用的集群，默认启动进程内的MiniCluster
+ * 指定 -Dbench.cluster=集群名 时改为连接hbase-clusters.properties中的集群
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 15:30
+ * @Version 1.0
+ */
+@State(Scope.Benchmark)
+public class BenchmarkCluster {
+
+    public static final String NAMESPACE = null;
+    public static final String FAMILY = "f1";
+    public static final String QUALIFIER = "v";
+
+    private HBaseTestingUtility testingUtility;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        String cluster = System.getProperty("bench.cluster");
+        if (cluster == null || cluster.trim().isEmpty()) {
+            testingUtility = new HBaseTestingUtility();
+            testingUtility.startMiniCluster();
+            connection = testingUtility.getConnection();
+        } else {
+            connection = ConnectionManager.getConnection(cluster.trim());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        if (testingUtility != null) {
+            testingUtility.shutdownMiniCluster();
+        } else {
+            HBaseUtils.closeConnection(connection);
+        }
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    // 重新创建表，按0000..9999的行键均匀预分区
+    public void recreateTable(String table, int regions) throws IOException {
+        TableName tn = TableName.valueOf(table);
+        try (Admin admin = connection.getAdmin()) {
+            if (admin.tableExists(tn)) {
+                admin.disableTable(tn);
+                admin.deleteTable(tn);
+            }
+            TableDescriptorBuilder builder = TableDescriptorBuilder.newBuilder(tn)
+                    .setColumnFamily(ColumnFamilyDescriptorBuilder.of(FAMILY));
+            byte[][] splits = new byte[regions - 1][];
+            for (int i = 1; i < regions; i++) {
+                splits[i - 1] = Bytes.toBytes(String.format("%04d", i * 10000 / regions));
+            }
+            if (splits.length == 0) {
+                admin.createTable(builder.build());
+            } else {
+                admin.createTable(builder.build(), splits);
+            }
+        }
+    }
+
+    // 写入rows行，行键为 rowKey(i)
+    public void load(String table, int rows, int valueSize) throws IOException {
+        String value = value(valueSize);
+        try (BatchWriter writer = BatchWriter.create(connection, NAMESPACE, table)) {
+            for (int i = 0; i < rows; i++) {
+                writer.put(rowKey(i, rows), FAMILY, QUALIFIER, value);
+            }
+        }
+    }
+
+    // 行键前4位均匀分布在0000..9999，与recreateTable的预分区对应
+    public static String rowKey(int i, int rows) {
+        return String.format("%04d-%010d", (int) ((long) i * 10000 / Math.max(rows, 1)), i);
+    }
+
+    public static String value(int size) {
+        char[] chars = new char[size];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+}
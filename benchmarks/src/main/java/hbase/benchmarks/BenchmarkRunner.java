@@ -0,0 +1,51 @@
+package hbase.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * ClassName: BenchmarkRunner
+ * Package: hbase.benchmarks
+ * Description: 运行全部基准测试，开启GC profiler统计分配速率（gc.alloc.rate.norm）
+ * 结果以JSON保存到 results/jmh-版本-时间.json，用于不同版本之间对比
+ * 仓库中不提交基线：结果取决于机器和集群，应在目标环境上用默认迭代次数跑出基线，再与之后的版本对比
+ * 用法：java -Dbench.version=1.0 -jar target/benchmarks.jar [JMH参数，如 GetBenchmark -p keys=100]
+ * MiniCluster依赖的Hadoop 2.10需要在Java 8上运行；连接已有集群时加 -Dbench.cluster=集群名
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 16:10
+ * @Version 1.0
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        String version = System.getProperty("bench.version", "1.0-SNAPSHOT");
+        String resultDir = System.getProperty("bench.results", "results");
+        new File(resultDir).mkdirs();
+        String resultFile = resultDir + File.separator + "jmh-" + version + "-"
+                + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json";
+
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLineOptions);
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include("hbase\\.benchmarks\\..*Benchmark");
+        }
+        Options options = builder
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                // 把集群参数传给fork出来的JVM
+                .jvmArgsAppend("-Dbench.cluster=" + System.getProperty("bench.cluster", ""))
+                .build();
+        new Runner(options).run();
+        System.out.println("结果已保存：" + resultFile);
+    }
+}
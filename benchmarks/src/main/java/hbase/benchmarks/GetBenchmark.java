@@ -0,0 +1,83 @@
+package hbase.benchmarks;
+
+import hbase.HBaseUtils;
+import hbase.RowResult;
+import hbase.RowSinks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: GetBenchmark
+ * Package: hbase.benchmarks
+ * Description: 逐个getData vs getDataBatch，每次调用查询keys个随机行键，分数为每次调用的耗时
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 15:50
+ * @Version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GetBenchmark {
+
+    private static final String TABLE = "bench_get";
+    private static final int ROWS = 10000;
+
+    @Param({"10", "100"})
+    public int keys;
+
+    @Param({"16", "1024"})
+    public int valueSize;
+
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkCluster cluster) throws Exception {
+        cluster.recreateTable(TABLE, 8);
+        cluster.load(TABLE, ROWS, valueSize);
+    }
+
+    private List<String> randomKeys() {
+        List<String> rowKeys = new ArrayList<>(keys);
+        for (int i = 0; i < keys; i++) {
+            rowKeys.add(BenchmarkCluster.rowKey(random.nextInt(ROWS), ROWS));
+        }
+        return rowKeys;
+    }
+
+    @Benchmark
+    public void singleGet(BenchmarkCluster cluster, Blackhole blackhole) throws Exception {
+        RowSinks.CountingSink sink = RowSinks.counting();
+        for (String rowKey : randomKeys()) {
+            HBaseUtils.getData(cluster.getConnection(), BenchmarkCluster.NAMESPACE, TABLE, rowKey, sink);
+        }
+        blackhole.consume(sink.getCells());
+    }
+
+    @Benchmark
+    public void multiGet(BenchmarkCluster cluster, Blackhole blackhole) throws Exception {
+        Map<String, RowResult> results = HBaseUtils.getDataBatch(cluster.getConnection(),
+                BenchmarkCluster.NAMESPACE, TABLE, randomKeys());
+        blackhole.consume(results);
+    }
+}
@@ -0,0 +1,122 @@
+package hbase.benchmarks;
+
+import hbase.BatchWriter;
+import hbase.BulkLoader;
+import hbase.HBaseUtils;
+import hbase.RowSinks;
+import hbase.ScanOptions;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: LoadBenchmark
+ * Package: hbase.benchmarks
+ * Description: 初始导入：BulkLoader写HFile再加载 vs BatchWriter逐行写，分数为导入rows行的耗时
+ * 每次导入前重建表，导入后扫描全表核对行数
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 18:50
+ * @Version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LoadBenchmark {
+
+    private static final String TABLE = "bench_load";
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private File input;
+    private BenchmarkCluster cluster;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkCluster cluster) throws Exception {
+        this.cluster = cluster;
+        // 与RowSinks.csv相同的格式，行键已按升序排列
+        input = File.createTempFile("bench-load", ".csv");
+        String value = BenchmarkCluster.value(valueSize);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(input), 64 * 1024)) {
+            for (int i = 0; i < rows; i++) {
+                String line = BenchmarkCluster.rowKey(i, rows) + "," + BenchmarkCluster.FAMILY + ","
+                        + BenchmarkCluster.QUALIFIER + "," + value + "\n";
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        input.delete();
+    }
+
+    @Setup(Level.Invocation)
+    public void recreate() throws Exception {
+        cluster.recreateTable(TABLE, 8);
+    }
+
+    @TearDown(Level.Invocation)
+    public void verify() throws Exception {
+        RowSinks.CountingSink sink = RowSinks.counting();
+        HBaseUtils.scanData(cluster.getConnection(), BenchmarkCluster.NAMESPACE, TABLE, "0000", "9999~",
+                ScanOptions.bulkExport(), sink);
+        if (sink.getRows() != rows) {
+            throw new IllegalStateException("导入后行数不一致：" + sink.getRows() + " != " + rows);
+        }
+    }
+
+    @Benchmark
+    public void bulkLoad() throws Exception {
+        try (InputStream in = new FileInputStream(input)) {
+            BulkLoader.create(cluster.getConnection(), BenchmarkCluster.NAMESPACE, TABLE).load(in);
+        }
+    }
+
+    @Benchmark
+    public void batchedPut() throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new BufferedInputStream(new FileInputStream(input)), StandardCharsets.UTF_8));
+             BatchWriter writer = BatchWriter.create(cluster.getConnection(), BenchmarkCluster.NAMESPACE, TABLE)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", 4);
+                Put put = new Put(Bytes.toBytes(fields[0]));
+                put.addColumn(Bytes.toBytes(fields[1]), Bytes.toBytes(fields[2]), Bytes.toBytes(fields[3]));
+                writer.mutate(put);
+            }
+        }
+    }
+}
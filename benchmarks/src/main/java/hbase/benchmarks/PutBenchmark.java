@@ -0,0 +1,71 @@
+package hbase.benchmarks;
+
+import hbase.BatchWriter;
+import hbase.HBaseUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: PutBenchmark
+ * Package: hbase.benchmarks
+ * Description: HBaseUtils.putData逐条写 vs BatchWriter批量写，分数为每秒写入行数
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 15:40
+ * @Version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PutBenchmark {
+
+    private static final String TABLE = "bench_put";
+    private static final int ROWS = 1000;
+
+    @Param({"16", "1024"})
+    public int valueSize;
+
+    private String value;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkCluster cluster) throws Exception {
+        cluster.recreateTable(TABLE, 8);
+        value = BenchmarkCluster.value(valueSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singlePut(BenchmarkCluster cluster) throws Exception {
+        for (int i = 0; i < ROWS; i++) {
+            HBaseUtils.putData(cluster.getConnection(), BenchmarkCluster.NAMESPACE, TABLE,
+                    BenchmarkCluster.rowKey((int) (next++ % 10000), 10000), BenchmarkCluster.FAMILY, BenchmarkCluster.QUALIFIER, value);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void batchedPut(BenchmarkCluster cluster) throws Exception {
+        try (BatchWriter writer = BatchWriter.create(cluster.getConnection(), BenchmarkCluster.NAMESPACE, TABLE)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.put(BenchmarkCluster.rowKey((int) (next++ % 10000), 10000), BenchmarkCluster.FAMILY, BenchmarkCluster.QUALIFIER, value);
+            }
+        }
+    }
+}
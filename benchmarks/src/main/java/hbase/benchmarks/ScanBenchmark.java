@@ -0,0 +1,85 @@
+package hbase.benchmarks;
+
+import hbase.HBaseUtils;
+import hbase.ParallelScanner;
+import hbase.RowSinks;
+import hbase.ScanOptions;
+import org.apache.hadoop.hbase.client.Scan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassName: ScanBenchmark
+ * Package: hbase.benchmarks
+ * Description: scanData顺序全表扫描 vs ParallelScanner按Region并行扫描，分数为每次全表扫描的耗时
+ *
+ * @Author Wang Anning
+ * @Create 2026/10/18 16:00
+ * @Version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScanBenchmark {
+
+    private static final String TABLE = "bench_scan";
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"16", "1024"})
+    public int valueSize;
+
+    @Param({"8"})
+    public int parallelism;
+
+    private ParallelScanner parallelScanner;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkCluster cluster) throws Exception {
+        cluster.recreateTable(TABLE, 8);
+        cluster.load(TABLE, rows, valueSize);
+        parallelScanner = new ParallelScanner(cluster.getConnection(), parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parallelScanner.close();
+    }
+
+    @Benchmark
+    public void sequentialScan(BenchmarkCluster cluster, Blackhole blackhole) throws Exception {
+        RowSinks.CountingSink sink = RowSinks.counting();
+        // 行键前4位是0000..9999
+        HBaseUtils.scanData(cluster.getConnection(), BenchmarkCluster.NAMESPACE, TABLE, "0000", "9999~",
+                ScanOptions.bulkExport(), sink);
+        blackhole.consume(sink.getRows());
+    }
+
+    @Benchmark
+    public void parallelScan(Blackhole blackhole) throws Exception {
+        AtomicLong cells = new AtomicLong();
+        long scanned = parallelScanner.scanUnordered(BenchmarkCluster.NAMESPACE, TABLE,
+                ScanOptions.bulkExport().apply(new Scan()), result -> cells.addAndGet(result.size()));
+        blackhole.consume(scanned);
+        blackhole.consume(cells.get());
+    }
+}